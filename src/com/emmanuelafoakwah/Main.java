@@ -1,8 +1,40 @@
 package com.emmanuelafoakwah;
 
+import com.emmanuelafoakwah.metrics.MetricsRegistry;
+import com.emmanuelafoakwah.server.DictionaryServer;
+import com.emmanuelafoakwah.tree_dictionary.TreeDictionary;
+import java.io.IOException;
+import static com.emmanuelafoakwah.shared.Constants.DICTIONARY_PATH;
+
+/**
+ * This program loads the Tree Dictionary once and serves it to local
+ * front-ends over TCP (see DictionaryServer for the protocol)
+ * Usage: Main [port] [dictionary path]
+ * @author Emmanuel Afoakwah
+ */
 public class Main {
 
     public static void main(String[] args) {
 
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DictionaryServer.DEFAULT_PORT;
+        String path = (args.length > 1) ? args[1] : DICTIONARY_PATH;
+
+        // Creating an instance of the dictionary
+        TreeDictionary tree = new TreeDictionary(path);
+
+        /*
+         * Try catch block attempting to start the server
+         * If the port cannot be bound, a message is printed
+         * along with the stack trace
+         */
+        try {
+            DictionaryServer server = new DictionaryServer(MetricsRegistry.instrument("tree", tree), tree::completions, port);
+            server.start();
+            System.out.println("Serving " + path + " on localhost:" + server.getPort());
+
+        }catch(IOException e) {
+            System.out.println("Could not start the server ...");
+            e.printStackTrace();
+        }
     }
 }
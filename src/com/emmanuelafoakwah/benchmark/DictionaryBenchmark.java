@@ -0,0 +1,385 @@
+package com.emmanuelafoakwah.benchmark;
+
+import com.emmanuelafoakwah.binary_dictionary.BinaryDictionary;
+import com.emmanuelafoakwah.binary_dictionary.DictionaryCompiler;
+import com.emmanuelafoakwah.binary_dictionary.OffHeapDictionary;
+import com.emmanuelafoakwah.list_dictionary.ListDictionary;
+import com.emmanuelafoakwah.map_dictionary.MapDictionary;
+import com.emmanuelafoakwah.prototype.PredictivePrototype;
+import com.emmanuelafoakwah.shared.Dictionary;
+import com.emmanuelafoakwah.tree_dictionary.TreeDictionary;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class benchmarks the Dictionary implementations against synthetic dictionaries
+ *
+ * For every implementation, dictionary size and word length distribution it measures:
+ * - load time and retained heap of the loaded dictionary
+ * - single query latency (mean, p50, p90, p99, max) on one thread
+ * - allocation per query (from the thread allocation counter, where the JVM has one)
+ * - throughput with 1, 2, 4 ... up to the maximum number of threads
+ *
+ * Results are written as CSV rows "implementation,distribution,words,metric,value"
+ * so runs can be compared by scripts to catch regressions
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class DictionaryBenchmark {
+
+	/**
+	 * This interface loads a dictionary from a dictionary text file
+	 */
+	public interface Loader {
+
+		/**
+		 * @param textPath is the String path to the dictionary text file
+		 * @return the loaded dictionary
+		 * @throws IOException if the dictionary cannot be loaded
+		 */
+		Dictionary load(String textPath) throws IOException;
+	}
+
+	// Declaring benchmark settings
+	private Map<String, Loader> implementations = defaultImplementations();
+	private List<Integer> sizes = Arrays.asList(10000, 100000, 1000000, 5000000);
+	private List<SyntheticDictionary.Distribution> distributions = Arrays.asList(SyntheticDictionary.Distribution.values());
+	private int maxThreads = Runtime.getRuntime().availableProcessors();
+	private int queryCount = 100000;
+	private long durationMillis = 2000;
+	private double hitRatio = 0.9;
+
+	// The prototype scans the whole file per query, so it is only run on small dictionaries
+	private int prototypeMaxWords = 100000;
+	private int prototypeQueries = 100;
+
+	/**
+	 * This function returns the default implementations to benchmark
+	 * @return a map from implementation name to loader
+	 */
+	public static Map<String, Loader> defaultImplementations() {
+
+		Map<String, Loader> out = new LinkedHashMap<String, Loader>();
+
+		out.put("prototype", path -> signature -> PredictivePrototype.signatureToWords(signature, path));
+		out.put("list", ListDictionary::new);
+		out.put("map", MapDictionary::new);
+		out.put("map-packed", path -> new MapDictionary(path, true));
+		out.put("tree", TreeDictionary::new);
+		out.put("binary", path -> new BinaryDictionary(compiledPath(path)));
+		out.put("offheap", OffHeapDictionary::new);
+		return out;
+	}
+
+	/**
+	 * This function runs every configured benchmark and writes the results
+	 * @param csv is the stream to write the result rows to
+	 * @throws IOException if a dictionary file cannot be written or loaded
+	 */
+	public void run(PrintStream csv) throws IOException {
+
+		csv.println("implementation,distribution,words,metric,value");
+
+		for(SyntheticDictionary.Distribution distribution : distributions) {
+			for(int size : sizes) {
+
+				SyntheticDictionary synthetic = new SyntheticDictionary(size, distribution, 42L);
+				Path textPath = synthetic.write();
+				String[] queries = synthetic.queries(queryCount, hitRatio);
+
+				try {
+					for(Map.Entry<String, Loader> implementation : implementations.entrySet()) {
+
+						boolean prototype = implementation.getKey().equals("prototype");
+
+						if( prototype && size > prototypeMaxWords ) {
+							continue;
+						}
+
+						Result result = new Result(csv, implementation.getKey(), distribution, size);
+
+						try {
+							benchmark(implementation.getKey(), implementation.getValue(), textPath,
+									prototype ? Arrays.copyOf(queries, Math.min(prototypeQueries, queries.length)) : queries, result);
+						}catch(OutOfMemoryError e) {
+							result.print("status", "out_of_memory");
+						}
+					}
+				}finally {
+					Files.deleteIfExists(textPath);
+					Files.deleteIfExists(textPath.resolveSibling(textPath.getFileName() + ".t9bd"));
+				}
+			}
+		}
+	}
+
+	/**
+	 * This function benchmarks one implementation against one dictionary
+	 * @param name is the name of the implementation
+	 * @param loader loads the dictionary
+	 * @param textPath is the path to the dictionary text file
+	 * @param queries are the query signatures
+	 * @param result collects the measurements
+	 * @throws IOException if the dictionary cannot be loaded
+	 */
+	private void benchmark(String name, Loader loader, Path textPath, String[] queries, Result result) throws IOException {
+
+		// Compile ahead of time for the binary dictionary (reported separately from loading)
+		if( name.equals("binary") ) {
+			long start = System.nanoTime();
+			new DictionaryCompiler().compile(textPath.toString(), compiledPath(textPath.toString()));
+			result.print("compile_ms", (System.nanoTime() - start) / 1e6);
+		}
+
+		// Load time and retained heap
+		long heapBefore = usedHeap();
+		long start = System.nanoTime();
+		Dictionary dictionary = loader.load(textPath.toString());
+		result.print("load_ms", (System.nanoTime() - start) / 1e6);
+		result.print("retained_bytes", Math.max(0, usedHeap() - heapBefore));
+
+		// Warm up so the latency loop measures compiled code
+		for(int i = 0; i<Math.min(queries.length, 20000); i++) {
+			dictionary.signatureToWords(queries[i]);
+		}
+
+		latency(dictionary, queries, result);
+
+		for(int threads = 1; threads<=maxThreads; threads *= 2) {
+			result.print("throughput_ops_s_threads_" + threads, throughput(dictionary, queries, threads));
+		}
+
+		// Keep the dictionary reachable until every measurement is done
+		result.print("results_per_query", (double) countResults(dictionary, queries) / queries.length);
+	}
+
+	/**
+	 * This function measures the latency and allocation of single queries
+	 * @param dictionary is the dictionary to query
+	 * @param queries are the query signatures
+	 * @param result collects the measurements
+	 */
+	private void latency(Dictionary dictionary, String[] queries, Result result) {
+
+		long[] nanos = new long[queries.length];
+		long allocatedBefore = allocatedBytes();
+
+		for(int i = 0; i<queries.length; i++) {
+			long start = System.nanoTime();
+			dictionary.signatureToWords(queries[i]);
+			nanos[i] = System.nanoTime() - start;
+		}
+
+		long allocatedAfter = allocatedBytes();
+		Arrays.sort(nanos);
+
+		result.print("latency_mean_ns", Arrays.stream(nanos).average().orElse(0));
+		result.print("latency_p50_ns", nanos[(int) (nanos.length * 0.50)]);
+		result.print("latency_p90_ns", nanos[(int) (nanos.length * 0.90)]);
+		result.print("latency_p99_ns", nanos[(int) (nanos.length * 0.99)]);
+		result.print("latency_max_ns", nanos[nanos.length - 1]);
+
+		if( allocatedBefore >= 0 ) {
+			result.print("alloc_bytes_per_op", (double) (allocatedAfter - allocatedBefore) / queries.length);
+		}
+	}
+
+	/**
+	 * This function measures the query throughput of several threads
+	 * querying the dictionary at the same time
+	 * @param dictionary is the dictionary to query
+	 * @param queries are the query signatures
+	 * @param threads is the number of threads
+	 * @return the number of queries per second over all threads
+	 */
+	private double throughput(Dictionary dictionary, String[] queries, int threads) {
+
+		AtomicLong operations = new AtomicLong();
+		CountDownLatch ready = new CountDownLatch(threads);
+		CountDownLatch go = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		long[] window = new long[1];
+
+		for(int t = 0; t<threads; t++) {
+			int offset = t * (queries.length / threads);
+
+			workers[t] = new Thread(() -> {
+				long count = 0;
+				ready.countDown();
+
+				try {
+					go.await();
+				}catch(InterruptedException e) {
+					return;
+				}
+
+				// Query until the measurement window closes
+				for(int i = offset; System.nanoTime() < window[0]; i = (i + 1) % queries.length) {
+					dictionary.signatureToWords(queries[i]);
+					count++;
+				}
+				operations.addAndGet(count);
+			});
+			workers[t].start();
+		}
+
+		try {
+			ready.await();
+			long start = System.nanoTime();
+			window[0] = start + durationMillis * 1000000L;
+			go.countDown();
+
+			for(Thread worker : workers) {
+				worker.join();
+			}
+			return operations.get() / ((System.nanoTime() - start) / 1e9);
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return 0;
+		}
+	}
+
+	/**
+	 * This function counts the total number of results for the queries
+	 * @param dictionary is the dictionary to query
+	 * @param queries are the query signatures
+	 * @return the total number of words returned
+	 */
+	private static long countResults(Dictionary dictionary, String[] queries) {
+		long out = 0;
+
+		for(String query : queries) {
+			out += dictionary.signatureToWords(query).size();
+		}
+		return out;
+	}
+
+	/**
+	 * This function returns the heap in use after requesting garbage collection
+	 * @return the number of heap bytes in use
+	 */
+	private static long usedHeap() {
+
+		Runtime runtime = Runtime.getRuntime();
+
+		for(int i = 0; i<3; i++) {
+			System.gc();
+
+			try {
+				Thread.sleep(50);
+			}catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * This function returns the number of bytes allocated by the current thread
+	 * @return the allocated bytes, or -1 if the JVM does not count them
+	 */
+	private static long allocatedBytes() {
+
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if( bean instanceof com.sun.management.ThreadMXBean ) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/**
+	 * This function returns the path of the compiled file for a text file
+	 * @param textPath is the String path to the dictionary text file
+	 * @return the String path to the compiled dictionary file
+	 */
+	private static String compiledPath(String textPath) {
+		return textPath + ".t9bd";
+	}
+
+	/**
+	 * This function sets the implementations to benchmark
+	 * @param names are the names of the implementations (see defaultImplementations)
+	 */
+	public void setImplementations(List<String> names) {
+
+		Map<String, Loader> all = defaultImplementations();
+		implementations = new LinkedHashMap<String, Loader>();
+
+		for(String name : names) {
+			if( !all.containsKey(name) ) {
+				throw new IllegalArgumentException("Unknown implementation " + name + ", expected one of " + all.keySet());
+			}
+			implementations.put(name, all.get(name));
+		}
+	}
+
+	/**
+	 * This function sets the dictionary sizes to benchmark
+	 * @param sizes are the numbers of words
+	 */
+	public void setSizes(List<Integer> sizes) {
+		this.sizes = sizes;
+	}
+
+	/**
+	 * This function sets the word length distributions to benchmark
+	 * @param distributions are the distributions
+	 */
+	public void setDistributions(List<SyntheticDictionary.Distribution> distributions) {
+		this.distributions = distributions;
+	}
+
+	/**
+	 * This function sets the largest number of threads for the throughput runs
+	 * @param maxThreads is the maximum number of threads
+	 */
+	public void setMaxThreads(int maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+
+	/**
+	 * This function sets the number of queries per latency run
+	 * @param queryCount is the number of queries
+	 */
+	public void setQueryCount(int queryCount) {
+		this.queryCount = queryCount;
+	}
+
+	/**
+	 * This function sets the length of each throughput run
+	 * @param durationMillis is the duration in milliseconds
+	 */
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	/**
+	 * This class writes the result rows of one benchmark
+	 */
+	private static class Result {
+
+		private PrintStream csv;
+		private String prefix;
+
+		Result(PrintStream csv, String implementation, SyntheticDictionary.Distribution distribution, int size) {
+			this.csv = csv;
+			this.prefix = implementation + "," + distribution + "," + size + ",";
+		}
+
+		void print(String metric, Object value) {
+			csv.println(prefix + metric + "," + value);
+			csv.flush();
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.emmanuelafoakwah.benchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This command line program runs the Dictionary benchmarks
+ * 
+ * Usage: RunBenchmarks [option value] ...
+ * --impl list,map,...       implementations (prototype, list, map, map-packed, tree, binary, offheap)
+ * --sizes 10000,100000      dictionary sizes in words
+ * --dist SHORT,MIXED,LONG   word length distributions
+ * --threads 8               maximum number of threads for the throughput runs
+ * --queries 100000          queries per latency run
+ * --duration 2000           length of each throughput run in milliseconds
+ * --out results.csv         file for the CSV results (defaults to standard output)
+ * @author Emmanuel Afoakwah
+ */
+public class RunBenchmarks {
+
+	public static void main(String[] args) throws IOException {
+
+		DictionaryBenchmark benchmark = new DictionaryBenchmark();
+		PrintStream out = System.out;
+		
+		// Loop through the args array applying each option
+		for(int i = 0; i+1<args.length; i += 2) {
+			
+			String value = args[i+1];
+			
+			switch(args[i]) {
+				case "--impl": benchmark.setImplementations(Arrays.asList(value.split(","))); break;
+				case "--sizes": benchmark.setSizes(parseIntegers(value)); break;
+				case "--dist": benchmark.setDistributions(parseDistributions(value)); break;
+				case "--threads": benchmark.setMaxThreads(Integer.parseInt(value)); break;
+				case "--queries": benchmark.setQueryCount(Integer.parseInt(value)); break;
+				case "--duration": benchmark.setDurationMillis(Long.parseLong(value)); break;
+				case "--out": out = new PrintStream(new FileOutputStream(value), true, "UTF-8"); break;
+				default: throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+		
+		benchmark.run(out);
+		
+		if( out != System.out ) {
+			out.close();
+		}
+	}
+	
+	/**
+	 * This function parses a comma separated list of integers
+	 * @param value is the comma separated list
+	 * @return the list of integers
+	 */
+	private static List<Integer> parseIntegers(String value) {
+		List<Integer> out = new ArrayList<Integer>();
+		
+		for(String item : value.split(",")) {
+			out.add(Integer.parseInt(item.trim()));
+		}
+		return out;
+	}
+	
+	/**
+	 * This function parses a comma separated list of distributions
+	 * @param value is the comma separated list
+	 * @return the list of distributions
+	 */
+	private static List<SyntheticDictionary.Distribution> parseDistributions(String value) {
+		List<SyntheticDictionary.Distribution> out = new ArrayList<SyntheticDictionary.Distribution>();
+		
+		for(String item : value.split(",")) {
+			out.add(SyntheticDictionary.Distribution.valueOf(item.trim().toUpperCase()));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,156 @@
+package com.emmanuelafoakwah.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.wordToSignature;
+
+/**
+ * This class generates synthetic dictionary text files for benchmarking
+ *
+ * Words are random strings of the letters a-z, their lengths (and therefore
+ * their signature lengths) follow one of the Distribution values
+ * The same seed always generates the same dictionary and queries
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class SyntheticDictionary {
+
+	/**
+	 * This enum lists the supported word (signature) length distributions
+	 */
+	public enum Distribution {
+
+		// Short words of 2-6 letters (most signatures shared by several words)
+		SHORT(2, 6),
+		// Lengths 1-20 weighted towards 6-9 letters, similar to natural language
+		MIXED(1, 20),
+		// Long words of 10-20 letters (almost every signature unique)
+		LONG(10, 20);
+
+		private int min;
+		private int max;
+
+		Distribution(int min, int max) {
+			this.min = min;
+			this.max = max;
+		}
+
+		/**
+		 * This function draws a word length from the distribution
+		 * @param random is the random source
+		 * @return a word length between the minimum and maximum
+		 */
+		int nextLength(Random random) {
+
+			if( this == MIXED ) {
+				int length = (int) Math.round(7.5 + random.nextGaussian() * 3);
+				return Math.max(min, Math.min(max, length));
+			}
+			return min + random.nextInt(max - min + 1);
+		}
+	}
+
+	// Declaring generator settings
+	private int size;
+	private Distribution distribution;
+	private long seed;
+
+	/**
+	 * This is the constructor for a synthetic dictionary
+	 * @param size is the number of words to generate
+	 * @param distribution is the distribution of the word lengths
+	 * @param seed is the random seed
+	 */
+	public SyntheticDictionary(int size, Distribution distribution, long seed) {
+		this.size = size;
+		this.distribution = distribution;
+		this.seed = seed;
+	}
+
+	/**
+	 * This function writes the dictionary to a temporary text file
+	 * @return the path to the text file
+	 * @throws IOException if the file cannot be written
+	 */
+	public Path write() throws IOException {
+
+		Path path = Files.createTempFile("t9bench-" + size + "-" + distribution, ".txt");
+		Random random = new Random(seed);
+
+		try( BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8) ) {
+			for(int i = 0; i<size; i++) {
+				out.write(nextWord(random));
+				out.newLine();
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * This function generates query signatures for the dictionary
+	 * A fraction of the queries are signatures of dictionary words (hits),
+	 * the rest are random signatures of the same lengths (mostly misses)
+	 * @param count is the number of signatures to generate
+	 * @param hitRatio is the fraction of queries taken from dictionary words
+	 * @return an array of query signatures
+	 */
+	public String[] queries(int count, double hitRatio) {
+
+		// Replaying the word generator gives the dictionary words in order
+		Random words = new Random(seed);
+		Random random = new Random(seed ^ 0x5DEECE66DL);
+		String[] out = new String[count];
+		int skip = Math.max(1, size / count);
+		int generated = 0;
+
+		for(int i = 0; i<count; i++) {
+
+			// Start the replay again once every dictionary word has been used
+			if( generated >= size ) {
+				words = new Random(seed);
+				generated = 0;
+			}
+
+			String word = nextWord(words);
+			generated++;
+
+			// Spread the hits over the dictionary rather than taking the first words
+			for(int j = 1; j<skip && generated < size; j++) {
+				nextWord(words);
+				generated++;
+			}
+
+			if( random.nextDouble() < hitRatio ) {
+				out[i] = wordToSignature(word);
+			}else {
+				char[] sig = new char[word.length()];
+
+				for(int j = 0; j<sig.length; j++) {
+					sig[j] = (char) ('2' + random.nextInt(8));
+				}
+				out[i] = new String(sig);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * This function generates the next random word
+	 * @param random is the random source
+	 * @return a random lower case word
+	 */
+	private String nextWord(Random random) {
+
+		char[] word = new char[distribution.nextLength(random)];
+
+		for(int i = 0; i<word.length; i++) {
+			word[i] = (char) ('a' + random.nextInt(26));
+		}
+		return new String(word);
+	}
+
+}
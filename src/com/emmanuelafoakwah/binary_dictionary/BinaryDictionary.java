@@ -0,0 +1,242 @@
+package com.emmanuelafoakwah.binary_dictionary;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class details the Binary Dictionary which serves queries straight from
+ * a compiled dictionary file (see BinaryDictionaryWriter for the format)
+ *
+ * The file is memory mapped, so opening the dictionary only reads the header,
+ * the index pages are loaded on demand by the operating system and are shared
+ * through the page cache by every process using the same file
+ * The signatureToWords function performs a binary search over the sorted
+ * signatures in the mapped buffer and only creates Strings for the matching words
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class BinaryDictionary implements Dictionary {
+
+	// The mapped dictionary file
+	private final ByteBuffer buffer;
+
+	// Header values
+	private final int signatureCount;
+	private final int wordCount;
+
+	// Positions of the sections within the buffer
+	private final int signatureOffsets;
+	private final int wordStarts;
+	private final int wordOffsets;
+	private final int frequencies;
+	private final int signatureBlob;
+	private final int wordBlob;
+
+	/**
+	 * This is the constructor for the Binary Dictionary
+	 * the compiled file is mapped read-only into memory
+	 * @param path is the String path to the compiled dictionary file
+	 */
+	public BinaryDictionary(String path) {
+		this(map(path));
+	}
+
+	/**
+	 * This is the constructor for a Binary Dictionary held in a buffer
+	 * @param buffer is a buffer holding a compiled dictionary from position 0
+	 */
+	public BinaryDictionary(ByteBuffer buffer) {
+
+		this.buffer = buffer;
+
+		// Check the header before trusting any of the offsets
+		if( buffer.limit() < BinaryDictionaryWriter.HEADER_SIZE
+				|| buffer.getInt(0) != BinaryDictionaryWriter.MAGIC ) {
+			throw new IllegalArgumentException("Not a compiled dictionary");
+		}
+		if( buffer.getInt(4) != BinaryDictionaryWriter.VERSION ) {
+			throw new IllegalArgumentException("Unsupported dictionary version " + buffer.getInt(4));
+		}
+
+		signatureCount = buffer.getInt(8);
+		wordCount = buffer.getInt(12);
+		int signatureBlobLength = buffer.getInt(16);
+
+		// The sections follow the header in a fixed order
+		signatureOffsets = BinaryDictionaryWriter.HEADER_SIZE;
+		wordStarts = signatureOffsets + 4 * (signatureCount + 1);
+		wordOffsets = wordStarts + 4 * (signatureCount + 1);
+		frequencies = wordOffsets + 4 * (wordCount + 1);
+		signatureBlob = frequencies + 4 * wordCount;
+		wordBlob = signatureBlob + signatureBlobLength;
+	}
+
+	/**
+	 * This function maps the given file read-only into memory
+	 * @param path is the String path to the file
+	 * @return a buffer holding the file contents
+	 */
+	private static ByteBuffer map(String path) {
+
+		try( FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ) ) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}catch(IOException e) {
+			throw new UncheckedIOException("Could not open compiled dictionary " + path, e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signatureToWords(java.lang.String)
+	 * This function binary searches the signatures for the given signature
+	 * and returns the set of words stored for it
+	 */
+	@Override
+	public Set<String> signatureToWords(String signature) {
+
+		// Declaring the output Set
+		Set<String> out = new TreeSet<String>();
+
+		int index = findSignature(signature);
+
+		if( index >= 0 ) {
+			int from = buffer.getInt(wordStarts + 4 * index);
+			int to = buffer.getInt(wordStarts + 4 * (index + 1));
+
+			for(int i = from; i<to; i++) {
+				out.add(getWord(i));
+			}
+		}
+		return out;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * The words of each signature are stored in rank order by the compiler,
+	 * so this decodes only the first k words of the signature
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+
+		int index = findSignature(signature);
+
+		if( index < 0 ) {
+			return new ArrayList<String>(0);
+		}
+
+		int from = buffer.getInt(wordStarts + 4 * index);
+		int to = Math.min(buffer.getInt(wordStarts + 4 * (index + 1)), from + Math.max(k, 0));
+		List<String> out = new ArrayList<String>(to - from);
+
+		for(int i = from; i<to; i++) {
+			out.add(getWord(i));
+		}
+		return out;
+	}
+
+	/**
+	 * This function returns the index of the given signature
+	 * @param signature is the signature to search for
+	 * @return the index of the signature, or -1 if it is not in the dictionary
+	 */
+	public int findSignature(String signature) {
+
+		int low = 0;
+		int high = signatureCount - 1;
+
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int result = compareSignature(mid, signature);
+
+			if( result < 0 ) {
+				low = mid + 1;
+			}else if( result > 0 ) {
+				high = mid - 1;
+			}else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * This function compares the stored signature at the given index with
+	 * a signature string, in the same order as String.compareTo
+	 * (the stored signatures are ASCII so each byte is one char)
+	 * @param index is the index of the stored signature
+	 * @param signature is the signature to compare against
+	 * @return a negative, zero or positive integer as the stored signature
+	 * is less than, equal to or greater than the given signature
+	 */
+	private int compareSignature(int index, String signature) {
+
+		int start = signatureBlob + buffer.getInt(signatureOffsets + 4 * index);
+		int length = buffer.getInt(signatureOffsets + 4 * (index + 1)) - buffer.getInt(signatureOffsets + 4 * index);
+		int common = Math.min(length, signature.length());
+
+		for(int i = 0; i<common; i++) {
+			int difference = (buffer.get(start + i) & 0xFF) - signature.charAt(i);
+
+			if( difference != 0 ) {
+				return difference;
+			}
+		}
+		return length - signature.length();
+	}
+
+	/**
+	 * This function decodes the word at the given index
+	 * @param index is the index of the word in the word table
+	 * @return the word as a String
+	 */
+	public String getWord(int index) {
+
+		int start = buffer.getInt(wordOffsets + 4 * index);
+		int end = buffer.getInt(wordOffsets + 4 * (index + 1));
+
+		// Copy the UTF-8 bytes out with absolute gets (safe for concurrent readers)
+		byte[] bytes = new byte[end - start];
+
+		for(int i = 0; i<bytes.length; i++) {
+			bytes[i] = buffer.get(wordBlob + start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * This function returns the frequency stored for the word at the given index
+	 * @param index is the index of the word in the word table
+	 * @return the frequency of the word (0 when the word list had none)
+	 */
+	public int getFrequency(int index) {
+		return buffer.getInt(frequencies + 4 * index);
+	}
+
+	/**
+	 * This function returns the number of distinct signatures in the dictionary
+	 * @return the number of signatures
+	 */
+	public int getSignatureCount() {
+		return signatureCount;
+	}
+
+	/**
+	 * This function returns the number of words in the dictionary
+	 * @return the number of words
+	 */
+	public int getWordCount() {
+		return wordCount;
+	}
+
+}
@@ -0,0 +1,224 @@
+package com.emmanuelafoakwah.binary_dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * This class writes compiled dictionary files read by BinaryDictionary
+ *
+ * Entries are added in sorted order with add() and the file is written by finish()
+ * Each section is streamed to its own temporary file while entries are added,
+ * so memory use does not grow with the size of the dictionary
+ * The file layout (all integers are 4 byte big-endian) is:
+ * - Header: magic, version, signature count (S), word count (W),
+ * 		signature blob length, word blob length
+ * - Signature offsets: S+1 offsets into the signature blob
+ * - Word starts: S+1 indexes into the word table, the words of signature i
+ * 		are the entries from word start i up to word start i+1, in rank order
+ * 		(descending frequency, then alphabetical)
+ * - Word offsets: W+1 offsets into the word blob
+ * - Word frequencies: W frequencies (0 when the word list has none)
+ * - Signature blob: the ASCII signatures back to back
+ * - Word blob: the UTF-8 words back to back
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class BinaryDictionaryWriter implements Closeable {
+
+	// File format constants
+	public static final int MAGIC = 0x54394244; // "T9BD"
+	public static final int VERSION = 3;
+	public static final int HEADER_SIZE = 24;
+
+	// Declaring path to the output file
+	private String path;
+
+	// Sections being built, in file order, and their temporary files
+	private Path[] sectionFiles = new Path[6];
+	private DataOutputStream[] sections = new DataOutputStream[6];
+	private DataOutputStream signatureOffsets;
+	private DataOutputStream wordStarts;
+	private DataOutputStream wordOffsets;
+	private DataOutputStream frequencies;
+	private DataOutputStream signatureBlob;
+	private DataOutputStream wordBlob;
+
+	// Counts and the last entry added (to check the ordering)
+	private int signatureCount;
+	private int wordCount;
+	private long signatureBlobLength;
+	private long wordBlobLength;
+	private String lastSignature;
+	private String lastWord;
+
+	/**
+	 * This is the constructor for the Binary Dictionary Writer
+	 * @param path is the String path of the compiled file to write
+	 * @throws IOException if the temporary section files cannot be created
+	 */
+	public BinaryDictionaryWriter(String path) throws IOException {
+		this.path = path;
+
+		try {
+			for(int i = 0; i<sections.length; i++) {
+				sectionFiles[i] = Files.createTempFile("t9bd", ".section");
+				sections[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(sectionFiles[i])));
+			}
+		}catch(IOException e) {
+			close();
+			throw e;
+		}
+
+		signatureOffsets = sections[0];
+		wordStarts = sections[1];
+		wordOffsets = sections[2];
+		frequencies = sections[3];
+		signatureBlob = sections[4];
+		wordBlob = sections[5];
+
+		wordOffsets.writeInt(0);
+	}
+
+	/**
+	 * This function adds a word without a frequency under the given signature
+	 * @param signature is the signature of the word
+	 * @param word is the word to add
+	 * @throws IOException if a section cannot be written
+	 */
+	public void add(String signature, String word) throws IOException {
+		add(signature, word, 0);
+	}
+
+	/**
+	 * This function adds a word under the given signature
+	 * Entries must be added sorted by signature, and the words of a signature
+	 * must be distinct and added in rank order (see WordFrequencies),
+	 * repeats of the previous entry are ignored
+	 * @param signature is the signature of the word
+	 * @param word is the word to add
+	 * @param frequency is the frequency of the word (0 if unknown)
+	 * @throws IOException if a section cannot be written
+	 */
+	public void add(String signature, String word, int frequency) throws IOException {
+
+		int order = (lastSignature == null) ? 1 : signature.compareTo(lastSignature);
+
+		if( order < 0 ) {
+			throw new IllegalStateException("Entries must be added in sorted order: "
+					+ signature + " " + word + " after " + lastSignature + " " + lastWord);
+		}
+		if( order == 0 && word.equals(lastWord) ) {
+			return;
+		}
+
+		// A new signature starts a new run of words
+		if( order > 0 ) {
+			signatureOffsets.writeInt(checkedOffset(signatureBlobLength));
+			wordStarts.writeInt(wordCount);
+
+			byte[] sigBytes = signature.getBytes(StandardCharsets.US_ASCII);
+			signatureBlob.write(sigBytes);
+			signatureBlobLength += sigBytes.length;
+			signatureCount++;
+		}
+
+		byte[] wordBytes = word.getBytes(StandardCharsets.UTF_8);
+		wordBlob.write(wordBytes);
+		wordBlobLength += wordBytes.length;
+		wordOffsets.writeInt(checkedOffset(wordBlobLength));
+		frequencies.writeInt(frequency);
+		wordCount++;
+
+		lastSignature = signature;
+		lastWord = word;
+	}
+
+	/**
+	 * This function writes the compiled dictionary file
+	 * and deletes the temporary section files
+	 * @throws IOException if the file cannot be written
+	 */
+	public void finish() throws IOException {
+
+		// Close the offset tables with the end positions
+		signatureOffsets.writeInt(checkedOffset(signatureBlobLength));
+		wordStarts.writeInt(wordCount);
+
+		for(DataOutputStream section : sections) {
+			section.close();
+		}
+
+		try( DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(Paths.get(path)))) ) {
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(signatureCount);
+			out.writeInt(wordCount);
+			out.writeInt((int) signatureBlobLength);
+			out.writeInt((int) wordBlobLength);
+
+			// Append the sections in file order
+			for(Path section : sectionFiles) {
+				Files.copy(section, out);
+			}
+		}finally {
+			close();
+		}
+	}
+
+	/**
+	 * This function returns the number of distinct signatures added so far
+	 * @return the number of signatures
+	 */
+	public int getSignatureCount() {
+		return signatureCount;
+	}
+
+	/**
+	 * This function returns the number of words added so far
+	 * @return the number of words
+	 */
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 * This function closes and deletes the temporary section files
+	 * (the compiled file is only written by finish)
+	 */
+	@Override
+	public void close() throws IOException {
+
+		for(int i = 0; i<sections.length; i++) {
+			if( sections[i] != null ) {
+				sections[i].close();
+			}
+			if( sectionFiles[i] != null ) {
+				Files.deleteIfExists(sectionFiles[i]);
+			}
+		}
+	}
+
+	/**
+	 * This function checks that a blob offset fits in the 4 byte offset tables
+	 * @param offset is the offset to check
+	 * @return the offset as an integer
+	 */
+	private static int checkedOffset(long offset) {
+
+		if( offset > Integer.MAX_VALUE ) {
+			throw new IllegalStateException("Compiled dictionary exceeds 2GB");
+		}
+		return (int) offset;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.emmanuelafoakwah.binary_dictionary;
+
+import java.io.IOException;
+import static com.emmanuelafoakwah.shared.Constants.BINARY_DICTIONARY_PATH;
+import static com.emmanuelafoakwah.shared.Constants.DICTIONARY_PATH;
+
+/**
+ * This command line program compiles a dictionary text file into the
+ * compiled dictionary file loaded by BinaryDictionary
+ * 
+ * Usage: CompileDictionary [input [output [runSize]]]
+ * - input defaults to the dictionary text file (Constants.DICTIONARY_PATH)
+ * - output defaults to Constants.BINARY_DICTIONARY_PATH
+ * - runSize is the number of words sorted in memory before spilling to disk
+ * @author Emmanuel Afoakwah
+ */
+public class CompileDictionary {
+
+	public static void main(String[] args) {
+
+		// Reading the optional arguments
+		String input = (args.length > 0) ? args[0] : DICTIONARY_PATH;
+		String output = (args.length > 1) ? args[1] : BINARY_DICTIONARY_PATH;
+		int runSize = (args.length > 2) ? Integer.parseInt(args[2]) : DictionaryCompiler.DEFAULT_RUN_SIZE;
+		
+		DictionaryCompiler compiler = new DictionaryCompiler(runSize);
+		
+		// Compile the dictionary and report the build throughput
+		try {
+			compiler.compile(input, output);
+			System.out.println(compiler.getReport());
+		}catch(IOException e) {
+			System.out.println("Could not compile dictionary ...");
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,400 @@
+package com.emmanuelafoakwah.binary_dictionary;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidWord;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.wordToSignature;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseFrequency;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseWord;
+
+/**
+ * This class compiles a dictionary text file into a compiled dictionary file
+ * (see BinaryDictionaryWriter) ahead of time
+ *
+ * Each line of the text file holds a word, optionally followed by whitespace
+ * and the frequency of the word eg.) "hello 120" (see WordFrequencies)
+ * The compiler streams the text file, validates each word with isValidWord,
+ * computes its signature and sorts the entries by signature and word
+ * Entries are sorted in memory in runs of at most runSize entries, once the
+ * input outgrows a single run the sorted runs are spilled to temporary files
+ * and merged (external merge sort), so memory use is bounded by the run size
+ * Repeated words are merged into one entry, adding up their frequencies,
+ * and the words of each signature are written in rank order (descending
+ * frequency, then alphabetical) so topWords does not need to sort
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class DictionaryCompiler {
+
+	// Default number of entries sorted in memory at once
+	public static final int DEFAULT_RUN_SIZE = 1000000;
+
+	// Orders the entries of one signature by descending frequency, then alphabetically
+	private static final Comparator<Entry> RANK_ORDER =
+			Comparator.<Entry>comparingInt(e -> -e.frequency).thenComparing(e -> e.word);
+
+	// Declaring compiler settings
+	private int runSize;
+
+	// Statistics of the last compile
+	private long linesRead;
+	private long wordsRejected;
+	private long bytesRead;
+	private int runsSpilled;
+	private int signaturesWritten;
+	private int wordsWritten;
+	private long elapsedNanos;
+
+	/**
+	 * This is the constructor for a compiler with the default run size
+	 */
+	public DictionaryCompiler() {
+		this(DEFAULT_RUN_SIZE);
+	}
+
+	/**
+	 * This is the constructor for a compiler with the given run size
+	 * @param runSize is the number of entries to sort in memory before spilling to disk
+	 */
+	public DictionaryCompiler(int runSize) {
+		if( runSize < 1 ) {
+			throw new IllegalArgumentException("Run size must be positive");
+		}
+		this.runSize = runSize;
+	}
+
+	/**
+	 * This function compiles the given text file into a compiled dictionary file
+	 * @param textPath is the String path to the dictionary text file
+	 * @param binaryPath is the String path of the compiled file to write
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public void compile(String textPath, String binaryPath) throws IOException {
+
+		long start = System.nanoTime();
+		linesRead = 0;
+		wordsRejected = 0;
+		bytesRead = 0;
+		runsSpilled = 0;
+
+		List<Path> runs = new ArrayList<Path>();
+		List<Entry> run = new ArrayList<Entry>();
+
+		try( BufferedReader reader = Files.newBufferedReader(Paths.get(textPath), StandardCharsets.UTF_8) ) {
+
+			String line;
+
+			// Read the text file, spilling a sorted run each time the buffer fills
+			while( (line = reader.readLine()) != null ) {
+
+				linesRead++;
+				bytesRead += line.length() + 1;
+
+				Entry entry = parseLine(line);
+
+				if( entry == null ) {
+					wordsRejected++;
+					continue;
+				}
+
+				run.add(entry);
+
+				if( run.size() >= runSize ) {
+					runs.add(spill(run));
+					run.clear();
+				}
+			}
+
+			// Write the compiled file straight from memory if nothing was spilled
+			try( BinaryDictionaryWriter writer = new BinaryDictionaryWriter(binaryPath) ) {
+
+				if( runs.isEmpty() ) {
+					Collections.sort(run);
+					writeSorted(new RunIterator(run), writer);
+				}else {
+					if( !run.isEmpty() ) {
+						runs.add(spill(run));
+						run.clear();
+					}
+					writeSorted(new MergeIterator(runs), writer);
+				}
+				writer.finish();
+
+				signaturesWritten = writer.getSignatureCount();
+				wordsWritten = writer.getWordCount();
+			}
+		}finally {
+			for(Path path : runs) {
+				Files.deleteIfExists(path);
+			}
+		}
+
+		elapsedNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * This function parses a line of the text file into an entry
+	 * @param line is the line to parse ("word" or "word frequency")
+	 * @return the entry for the line, or null if the word is not valid
+	 */
+	static Entry parseLine(String line) {
+
+		String word = parseWord(line);
+		int frequency = parseFrequency(line);
+
+		if( word.isEmpty() || !isValidWord(word) || frequency < 0 ) {
+			return null;
+		}
+		return new Entry(wordToSignature(word), word, frequency);
+	}
+
+	/**
+	 * This function sorts a run of entries and writes it to a temporary file
+	 * one entry per line as "signature TAB word TAB frequency"
+	 * @param run is the run of entries to spill
+	 * @return the path to the temporary file
+	 * @throws IOException if the file cannot be written
+	 */
+	private Path spill(List<Entry> run) throws IOException {
+
+		Collections.sort(run);
+		Path path = Files.createTempFile("t9run", ".txt");
+
+		try( BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8) ) {
+			for(Entry entry : run) {
+				out.write(entry.signature);
+				out.write('\t');
+				out.write(entry.word);
+				out.write('\t');
+				out.write(Integer.toString(entry.frequency));
+				out.newLine();
+			}
+		}
+		runsSpilled++;
+		return path;
+	}
+
+	/**
+	 * This function writes sorted entries to the writer, merging repeated
+	 * words into one entry with the sum of their frequencies and ranking
+	 * the words of each signature by frequency
+	 * @param entries supplies the entries in sorted order
+	 * @param writer is the writer for the compiled file
+	 * @throws IOException if a file cannot be read or written
+	 */
+	private static void writeSorted(EntryIterator entries, BinaryDictionaryWriter writer) throws IOException {
+
+		List<Entry> group = new ArrayList<Entry>();
+		Entry next = entries.next();
+
+		while( next != null ) {
+
+			// Collect the distinct words of the next signature
+			String signature = next.signature;
+			group.clear();
+
+			while( next != null && next.signature.equals(signature) ) {
+
+				Entry pending = next;
+				next = entries.next();
+
+				// Fold repeats of the same word into the pending entry
+				while( next != null && next.compareTo(pending) == 0 ) {
+					pending.frequency = (int) Math.min(Integer.MAX_VALUE, (long) pending.frequency + next.frequency);
+					next = entries.next();
+				}
+				group.add(pending);
+			}
+
+			// Write the words of the signature in rank order
+			Collections.sort(group, RANK_ORDER);
+
+			for(Entry entry : group) {
+				writer.add(entry.signature, entry.word, entry.frequency);
+			}
+		}
+	}
+
+	/**
+	 * This function returns a summary of the last compile
+	 * @return a String reporting the counts and build throughput
+	 */
+	public String getReport() {
+
+		double seconds = elapsedNanos / 1e9;
+
+		return String.format("Read %d lines (%.1f MB), rejected %d, wrote %d words under %d signatures%n"
+				+ "Spilled %d sorted runs, took %.3f s (%.0f words/s, %.1f MB/s)",
+				linesRead, bytesRead / 1e6, wordsRejected, wordsWritten, signaturesWritten,
+				runsSpilled, seconds, linesRead / seconds, bytesRead / 1e6 / seconds);
+	}
+
+	/**
+	 * This function returns the number of lines read by the last compile
+	 * @return the number of lines read
+	 */
+	public long getLinesRead() {
+		return linesRead;
+	}
+
+	/**
+	 * This function returns the number of lines rejected by the last compile
+	 * @return the number of lines without a valid word
+	 */
+	public long getWordsRejected() {
+		return wordsRejected;
+	}
+
+	/**
+	 * This function returns the number of words written by the last compile
+	 * @return the number of distinct words written
+	 */
+	public int getWordsWritten() {
+		return wordsWritten;
+	}
+
+	/**
+	 * This class represents a word and its signature while compiling
+	 * Entries are ordered by signature and then by word
+	 */
+	static class Entry implements Comparable<Entry> {
+
+		private String signature;
+		private String word;
+		private int frequency;
+
+		Entry(String signature, String word, int frequency) {
+			this.signature = signature;
+			this.word = word;
+			this.frequency = frequency;
+		}
+
+		@Override
+		public int compareTo(Entry e) {
+			int out = signature.compareTo(e.signature);
+			return (out != 0) ? out : word.compareTo(e.word);
+		}
+	}
+
+	/**
+	 * This interface supplies entries in sorted order
+	 */
+	private interface EntryIterator {
+
+		/**
+		 * @return the next entry, or null when there are no more
+		 * @throws IOException if a run file cannot be read
+		 */
+		Entry next() throws IOException;
+	}
+
+	/**
+	 * This class supplies the entries of a sorted in-memory run
+	 */
+	private static class RunIterator implements EntryIterator {
+
+		private List<Entry> run;
+		private int index;
+
+		RunIterator(List<Entry> run) {
+			this.run = run;
+		}
+
+		@Override
+		public Entry next() {
+			return (index < run.size()) ? run.get(index++) : null;
+		}
+	}
+
+	/**
+	 * This class merges the sorted run files, always returning the
+	 * smallest of the current entries of the runs
+	 */
+	private static class MergeIterator implements EntryIterator {
+
+		// Runs ordered by their current entry
+		private PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>();
+
+		MergeIterator(List<Path> runs) throws IOException {
+			for(Path path : runs) {
+				RunReader reader = new RunReader(path);
+
+				if( reader.current != null ) {
+					queue.add(reader);
+				}else {
+					reader.close();
+				}
+			}
+		}
+
+		@Override
+		public Entry next() throws IOException {
+
+			RunReader reader = queue.poll();
+
+			if( reader == null ) {
+				return null;
+			}
+
+			Entry out = reader.current;
+
+			// Put the run back while it still has entries
+			if( reader.advance() ) {
+				queue.add(reader);
+			}else {
+				reader.close();
+			}
+			return out;
+		}
+	}
+
+	/**
+	 * This class reads the entries of a run file one at a time
+	 */
+	private static class RunReader implements Comparable<RunReader> {
+
+		private BufferedReader reader;
+		private Entry current;
+
+		RunReader(Path path) throws IOException {
+			reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+			advance();
+		}
+
+		boolean advance() throws IOException {
+
+			String line = reader.readLine();
+
+			if( line == null ) {
+				current = null;
+				return false;
+			}
+
+			int tab1 = line.indexOf('\t');
+			int tab2 = line.indexOf('\t', tab1 + 1);
+			current = new Entry(line.substring(0, tab1), line.substring(tab1 + 1, tab2),
+					Integer.parseInt(line.substring(tab2 + 1)));
+			return true;
+		}
+
+		void close() throws IOException {
+			reader.close();
+		}
+
+		@Override
+		public int compareTo(RunReader r) {
+			return current.compareTo(r.current);
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.emmanuelafoakwah.binary_dictionary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class details the Off Heap Dictionary which loads a dictionary text file
+ * into memory outside of the Java heap
+ *
+ * The text file is compiled (see DictionaryCompiler) and the compiled index is
+ * copied into a direct ByteBuffer, queries are then answered by the Binary
+ * Dictionary straight from that buffer
+ * The signature index and the word bytes are a single block of native memory,
+ * so the garbage collector never has to mark or copy the words, only the
+ * Strings returned for each query are created on the heap
+ * Unlike the Binary Dictionary no compiled file is kept, the native memory
+ * is released when the dictionary is garbage collected
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class OffHeapDictionary extends BinaryDictionary {
+
+	// Declaring the size of the native memory block
+	private final long offHeapBytes;
+
+	/**
+	 * This is the constructor for the Off Heap Dictionary
+	 * @param path is the string path to the dictionary text file
+	 */
+	public OffHeapDictionary(String path) {
+		this(load(path));
+	}
+
+	/**
+	 * This is the constructor for an Off Heap Dictionary held in a direct buffer
+	 * @param buffer is a direct buffer holding a compiled dictionary from position 0
+	 */
+	private OffHeapDictionary(ByteBuffer buffer) {
+		super(buffer);
+		this.offHeapBytes = buffer.capacity();
+	}
+
+	/**
+	 * This function compiles the given text file and copies the
+	 * compiled dictionary into a direct buffer
+	 * @param path is the String path to the dictionary text file
+	 * @return a direct buffer holding the compiled dictionary
+	 */
+	private static ByteBuffer load(String path) {
+
+		Path compiled = null;
+
+		try {
+			compiled = Files.createTempFile("t9offheap", ".t9bd");
+			new DictionaryCompiler().compile(path, compiled.toString());
+
+			try( FileChannel channel = FileChannel.open(compiled, StandardOpenOption.READ) ) {
+
+				if( channel.size() > Integer.MAX_VALUE ) {
+					throw new IllegalArgumentException("Compiled dictionary exceeds 2GB: " + path);
+				}
+
+				ByteBuffer buffer = ByteBuffer.allocateDirect((int) channel.size());
+
+				// Copy the whole file, the channel may return fewer bytes per read
+				while( buffer.hasRemaining() ) {
+					if( channel.read(buffer) < 0 ) {
+						throw new IOException("Unexpected end of compiled dictionary");
+					}
+				}
+				buffer.flip();
+				return buffer;
+			}
+		}catch(IOException e) {
+			throw new UncheckedIOException("Could not load dictionary " + path, e);
+		}finally {
+			if( compiled != null ) {
+				try {
+					Files.deleteIfExists(compiled);
+				}catch(IOException e) {
+					compiled.toFile().deleteOnExit();
+				}
+			}
+		}
+	}
+
+	/**
+	 * This function returns the size of the native memory holding the dictionary
+	 * @return the number of bytes held outside the heap
+	 */
+	public long getOffHeapBytes() {
+		return offHeapBytes;
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.emmanuelafoakwah.binary_dictionary;
+
+import com.emmanuelafoakwah.metrics.MetricsRegistry;
+import com.emmanuelafoakwah.shared.Dictionary;
+import com.emmanuelafoakwah.shared.QueryStream;
+import static com.emmanuelafoakwah.shared.Constants.BINARY_DICTIONARY_PATH;
+
+/**
+ * This command line program runs the Binary Sigs2Words() function
+ * against the compiled dictionary file, for the signatures given as arguments,
+ * read from standard input ("-") or read from a file ("-f path"), see QueryStream
+ * @author Emmanuel Afoakwah
+ */
+public class Sigs2WordsBinary {
+
+	public static void main(String[] args) {
+
+		// Opening the compiled dictionary
+		Dictionary bd = MetricsRegistry.instrument("binary", new BinaryDictionary(BINARY_DICTIONARY_PATH));
+		
+		// Answer the signatures given as arguments, standard input or files
+		new QueryStream(bd).run(args);
+	}
+}
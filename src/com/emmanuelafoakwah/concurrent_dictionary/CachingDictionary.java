@@ -0,0 +1,395 @@
+package com.emmanuelafoakwah.concurrent_dictionary;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import com.emmanuelafoakwah.shared.MutableDictionary;
+import com.emmanuelafoakwah.shared.SortedArraySet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.wordToSignature;
+
+/**
+ * This class details the Caching Dictionary, a wrapper that keeps the results
+ * of the most valuable signatures so they are answered without the wrapped dictionary
+ * 
+ * Results are kept in a ConcurrentHashMap, so a cache hit is a single lookup
+ * Which signatures are kept is decided by a W-TinyLFU policy:
+ * - new signatures enter a small LRU window (1% of the capacity)
+ * - signatures leaving the window compete with the least recently used signature
+ * 		of the main LRU segment, the one seen more often (see FrequencySketch) stays
+ * so a burst of one-off signatures cannot push out the short signatures that
+ * make up most keystroke traffic
+ * The policy is updated under a lock, a hit skips the update when the lock is busy
+ * rather than wait (the access is simply not counted)
+ * 
+ * Every cached result is an immutable copy, so callers can never change the cache
+ * The cache must be told when the wrapped dictionary changes:
+ * - addWord and removeWord (when the wrapped dictionary is a MutableDictionary)
+ * 		invalidate every prefix of the word's signature
+ * - invalidateAll clears the cache, eg.) as a ReloadingDictionary reload listener
+ * 		(see CachingDictionary.wrap)
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class CachingDictionary implements MutableDictionary {
+	
+	// Declaring the wrapped dictionary
+	private final Dictionary dictionary;
+	
+	// Cached results and the policy deciding which are kept
+	private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<String, Entry>();
+	private final LinkedHashMap<String, Boolean> window = new LinkedHashMap<String, Boolean>(16, 0.75f, true);
+	private final LinkedHashMap<String, Boolean> main = new LinkedHashMap<String, Boolean>(16, 0.75f, true);
+	private final FrequencySketch sketch;
+	private final ReentrantLock policyLock = new ReentrantLock();
+	private final int windowCapacity;
+	private final int mainCapacity;
+	
+	// Incremented by every invalidation, so results computed before one are not cached
+	private final AtomicLong invalidations = new AtomicLong();
+	
+	// Cache statistics
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * This is the constructor for a cache in front of the given dictionary
+	 * @param dictionary is the dictionary to cache
+	 * @param capacity is the maximum number of signatures to keep
+	 */
+	public CachingDictionary(Dictionary dictionary, int capacity) {
+		
+		if( capacity < 2 ) {
+			throw new IllegalArgumentException("Capacity must be at least 2");
+		}
+		
+		this.dictionary = dictionary;
+		this.windowCapacity = Math.max(1, capacity / 100);
+		this.mainCapacity = capacity - windowCapacity;
+		this.sketch = new FrequencySketch(capacity);
+	}
+	
+	/**
+	 * This function creates a cache in front of a reloading dictionary
+	 * that is cleared each time the dictionary is reloaded
+	 * @param dictionary is the reloading dictionary to cache
+	 * @param capacity is the maximum number of signatures to keep
+	 * @return the caching dictionary
+	 */
+	public static CachingDictionary wrap(ReloadingDictionary dictionary, int capacity) {
+		CachingDictionary out = new CachingDictionary(dictionary, capacity);
+		dictionary.addReloadListener(reloaded -> out.invalidateAll());
+		return out;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signatureToWords(java.lang.String)
+	 * This function returns the cached words for the signature,
+	 * asking the wrapped dictionary on a miss
+	 */
+	@Override
+	public Set<String> signatureToWords(String signature) {
+		
+		Entry entry = cache.get(signature);
+		
+		if( entry != null ) {
+			hits.increment();
+			recordHit(signature);
+			return entry.words;
+		}
+		
+		misses.increment();
+		long version = invalidations.get();
+		
+		Set<String> words = immutableCopy(dictionary.signatureToWords(signature));
+		store(signature, new Entry(words, null, 0), version);
+		return words;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * This function returns the cached top words for the signature, the entry
+	 * keeps the longest list asked for so a smaller k is served from it
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+		
+		Entry entry = cache.get(signature);
+		
+		if( entry != null && entry.top != null && (k <= entry.topK || entry.top.size() < entry.topK) ) {
+			hits.increment();
+			recordHit(signature);
+			return entry.top.subList(0, Math.max(0, Math.min(k, entry.top.size())));
+		}
+		
+		misses.increment();
+		long version = invalidations.get();
+		
+		List<String> top = Collections.unmodifiableList(new ArrayList<String>(dictionary.topWords(signature, k)));
+		
+		// Keep the words of an existing entry, they are still valid
+		Set<String> words = (entry != null) ? entry.words : immutableCopy(dictionary.signatureToWords(signature));
+		store(signature, new Entry(words, top, k), version);
+		return top;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.MutableDictionary#addWord(java.lang.String)
+	 * This function adds the word to the wrapped dictionary
+	 * and invalidates the signatures it can change
+	 */
+	@Override
+	public boolean addWord(String word) {
+		boolean out = mutable().addWord(word);
+		invalidateWord(word);
+		return out;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.MutableDictionary#removeWord(java.lang.String)
+	 * This function removes the word from the wrapped dictionary
+	 * and invalidates the signatures it can change
+	 */
+	@Override
+	public boolean removeWord(String word) {
+		boolean out = mutable().removeWord(word);
+		invalidateWord(word);
+		return out;
+	}
+	
+	/**
+	 * This function returns the wrapped dictionary as a MutableDictionary
+	 * @return the wrapped dictionary
+	 */
+	private MutableDictionary mutable() {
+		
+		if( !(dictionary instanceof MutableDictionary) ) {
+			throw new UnsupportedOperationException("The cached dictionary cannot be modified");
+		}
+		return (MutableDictionary) dictionary;
+	}
+	
+	/**
+	 * This function removes the cached results a changed word can affect:
+	 * every prefix of its signature (the Tree Dictionary returns trimmed words
+	 * for prefixes, the other dictionaries only for the whole signature)
+	 * @param word is the word that was added or removed
+	 */
+	public void invalidateWord(String word) {
+		
+		String signature = wordToSignature(word.toLowerCase());
+		invalidations.incrementAndGet();
+		
+		for(int i = 1; i<=signature.length(); i++) {
+			invalidate(signature.substring(0, i));
+		}
+	}
+	
+	/**
+	 * This function removes the cached result for a signature
+	 * @param signature is the signature to remove
+	 */
+	public void invalidate(String signature) {
+		
+		invalidations.incrementAndGet();
+		
+		policyLock.lock();
+		
+		try {
+			if( cache.remove(signature) != null ) {
+				window.remove(signature);
+				main.remove(signature);
+			}
+		}finally {
+			policyLock.unlock();
+		}
+	}
+	
+	/**
+	 * This function removes every cached result
+	 */
+	public void invalidateAll() {
+		
+		invalidations.incrementAndGet();
+		
+		policyLock.lock();
+		
+		try {
+			cache.clear();
+			window.clear();
+			main.clear();
+		}finally {
+			policyLock.unlock();
+		}
+	}
+	
+	/**
+	 * This function records a cache hit in the policy,
+	 * unless another thread is updating the policy
+	 * @param signature is the signature that was hit
+	 */
+	private void recordHit(String signature) {
+		
+		if( !policyLock.tryLock() ) {
+			return;
+		}
+		
+		try {
+			sketch.increment(signature);
+			
+			// Move the signature to the most recently used end of its segment
+			if( window.get(signature) == null ) {
+				main.get(signature);
+			}
+		}finally {
+			policyLock.unlock();
+		}
+	}
+	
+	/**
+	 * This function caches the result of a miss in the window,
+	 * evicting from the window and main segment as needed
+	 * @param signature is the signature
+	 * @param entry is the result to cache
+	 * @param version is the invalidation count from before the result was computed
+	 */
+	private void store(String signature, Entry entry, long version) {
+		
+		policyLock.lock();
+		
+		try {
+			sketch.increment(signature);
+			
+			// A result computed before an invalidation may already be stale
+			if( invalidations.get() != version ) {
+				return;
+			}
+			
+			// Replace an entry already in the policy (eg. a longer top words list)
+			if( cache.put(signature, entry) != null ) {
+				return;
+			}
+			
+			window.put(signature, Boolean.TRUE);
+			
+			if( window.size() > windowCapacity ) {
+				evictFromWindow();
+			}
+		}finally {
+			policyLock.unlock();
+		}
+	}
+	
+	/**
+	 * This function moves the least recently used signature of the window to the
+	 * main segment, if the main segment is full the candidate only enters it
+	 * if it has been seen more often than the main segment's least recently used
+	 * signature (TinyLFU admission), the loser is evicted
+	 */
+	private void evictFromWindow() {
+		
+		Iterator<String> windowOrder = window.keySet().iterator();
+		String candidate = windowOrder.next();
+		windowOrder.remove();
+		
+		if( main.size() < mainCapacity ) {
+			main.put(candidate, Boolean.TRUE);
+			return;
+		}
+		
+		Iterator<String> mainOrder = main.keySet().iterator();
+		String victim = mainOrder.next();
+		
+		if( sketch.frequency(candidate) > sketch.frequency(victim) ) {
+			mainOrder.remove();
+			cache.remove(victim);
+			main.put(candidate, Boolean.TRUE);
+		}else {
+			cache.remove(candidate);
+		}
+		evictions.increment();
+	}
+	
+	/**
+	 * This function returns an immutable copy of a set of words
+	 * @param words is the set to copy
+	 * @return an immutable set holding the same words
+	 */
+	private static Set<String> immutableCopy(Set<String> words) {
+		
+		if( words instanceof SortedArraySet ) {
+			return words;
+		}
+		return words.isEmpty() ? SortedArraySet.EMPTY : new SortedArraySet(words.toArray(new String[0]));
+	}
+	
+	/**
+	 * This function returns the number of cache hits
+	 * @return the number of queries answered from the cache
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+	
+	/**
+	 * This function returns the number of cache misses
+	 * @return the number of queries passed to the wrapped dictionary
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+	
+	/**
+	 * This function returns the number of evictions
+	 * @return the number of signatures removed to make room for others
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * This function returns the fraction of queries answered from the cache
+	 * @return the hit rate between 0 and 1 (0 before any query)
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return (total == 0) ? 0 : (double) h / total;
+	}
+	
+	/**
+	 * This function returns the number of signatures cached
+	 * @return the number of cached entries
+	 */
+	public int size() {
+		return cache.size();
+	}
+	
+	/**
+	 * This class holds the immutable cached results of one signature
+	 */
+	private static final class Entry {
+		
+		private final Set<String> words;
+		private final List<String> top;
+		private final int topK;
+		
+		Entry(Set<String> words, List<String> top, int topK) {
+			this.words = words;
+			this.top = top;
+			this.topK = topK;
+		}
+	}
+	
+}
@@ -0,0 +1,139 @@
+package com.emmanuelafoakwah.concurrent_dictionary;
+
+/**
+ * This class is a count-min sketch estimating how often each key has been seen,
+ * used by the CachingDictionary to decide which signatures are worth keeping
+ * 
+ * Each key increments one 4 bit counter in each of 4 rows (chosen by 4 different
+ * hashes of the key), its estimate is the smallest of those counters
+ * so collisions can only over-estimate a key
+ * Once the sample size is reached every counter is halved (aging), so keys that
+ * were popular long ago make way for the keys that are popular now
+ * 
+ * The sketch is not thread-safe, the caller must synchronize
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class FrequencySketch {
+	
+	// Number of rows (hash functions)
+	private static final int DEPTH = 4;
+	
+	// Largest value of a 4 bit counter
+	private static final int MAX_COUNT = 15;
+	
+	// Seeds for the hash of each row
+	private static final int[] SEEDS = { 0x97CB3127, 0xB6D2F7A1, 0x8F3B6E0D, 0xC2B2AE35 };
+	
+	// Declaring sketch properties (16 counters of 4 bits per long)
+	private final long[] table;
+	private final int mask;
+	private final int sampleSize;
+	private int samples;
+	
+	/**
+	 * This is the constructor for a sketch sized for the given number of keys
+	 * @param capacity is the number of keys the cache holds
+	 */
+	public FrequencySketch(int capacity) {
+		int counters = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1);
+		this.table = new long[counters * DEPTH / 16];
+		this.mask = counters - 1;
+		this.sampleSize = 10 * Math.max(16, capacity);
+	}
+	
+	/**
+	 * This function records one occurrence of the key
+	 * @param key is the key seen
+	 */
+	public void increment(String key) {
+		
+		int hash = spread(key.hashCode());
+		boolean added = false;
+		
+		for(int row = 0; row<DEPTH; row++) {
+			added |= incrementAt(counterIndex(hash, row));
+		}
+		
+		// Age the counters once enough keys have been recorded
+		if( added && ++samples >= sampleSize ) {
+			reset();
+		}
+	}
+	
+	/**
+	 * This function estimates how often the key has been seen
+	 * @param key is the key
+	 * @return the estimated number of occurrences (at most 15)
+	 */
+	public int frequency(String key) {
+		
+		int hash = spread(key.hashCode());
+		int out = MAX_COUNT;
+		
+		for(int row = 0; row<DEPTH; row++) {
+			out = Math.min(out, counterAt(counterIndex(hash, row)));
+		}
+		return out;
+	}
+	
+	/**
+	 * This function returns the index of the key's counter in the given row
+	 * @param hash is the spread hash of the key
+	 * @param row is the row
+	 * @return the counter index (row major)
+	 */
+	private int counterIndex(int hash, int row) {
+		int h = (hash ^ SEEDS[row]) * SEEDS[row];
+		h ^= h >>> 16;
+		return row * (mask + 1) + (h & mask);
+	}
+	
+	/**
+	 * This function returns the value of a counter
+	 * @param index is the counter index
+	 * @return the value of the counter
+	 */
+	private int counterAt(int index) {
+		return (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xF);
+	}
+	
+	/**
+	 * This function increments a counter unless it is already at its maximum
+	 * @param index is the counter index
+	 * @return a boolean indicating whether the counter was incremented
+	 */
+	private boolean incrementAt(int index) {
+		
+		int shift = (index & 15) << 2;
+		
+		if( ((table[index >>> 4] >>> shift) & 0xF) == MAX_COUNT ) {
+			return false;
+		}
+		table[index >>> 4] += 1L << shift;
+		return true;
+	}
+	
+	/**
+	 * This function halves every counter
+	 */
+	private void reset() {
+		for(int i = 0; i<table.length; i++) {
+			table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+		}
+		samples /= 2;
+	}
+	
+	/**
+	 * This function spreads the bits of a hash code
+	 * @param hash is the hash code
+	 * @return the spread hash
+	 */
+	private static int spread(int hash) {
+		hash ^= hash >>> 17;
+		hash *= 0xED5AD4BB;
+		hash ^= hash >>> 11;
+		return hash;
+	}
+	
+}
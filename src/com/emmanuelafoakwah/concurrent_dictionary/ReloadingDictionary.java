@@ -0,0 +1,215 @@
+package com.emmanuelafoakwah.concurrent_dictionary;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import java.io.Closeable;
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * This class details the Reloading Dictionary, a wrapper that serves any
+ * number of reader threads from a dictionary that is rebuilt whenever
+ * its dictionary text file changes
+ *
+ * Readers use the current snapshot through a single volatile read, so they
+ * never take a lock and never wait for a reload
+ * A background thread polls the modification time and size of the file,
+ * once a change has been seen on two polls in a row (so a file that is
+ * still being written is not loaded half way) a new dictionary is built
+ * on that thread and swapped in with one volatile write
+ * Queries already running finish on the old snapshot, which is garbage
+ * collected once the last of them returns
+ *
+ * The wrapped dictionaries must not be modified after they are built
+ * (every implementation in this project is safe to read from many threads)
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class ReloadingDictionary implements Dictionary, Closeable {
+
+	// Default time between checks of the dictionary file
+	public static final long DEFAULT_POLL_MILLIS = 1000;
+
+	// Declaring reload properties
+	private final String path;
+	private final Function<String, ? extends Dictionary> loader;
+	private final ScheduledExecutorService poller;
+
+	// The current snapshot served to readers
+	private volatile Dictionary dictionary;
+	private volatile long reloadCount;
+
+	// File state of the current snapshot and of the last poll
+	private long loadedStamp;
+	private long polledStamp;
+
+	// Functions called with each new snapshot after it is swapped in
+	private final List<Consumer<Dictionary>> listeners = new CopyOnWriteArrayList<Consumer<Dictionary>>();
+
+	/**
+	 * This is the constructor for a reloading dictionary polling every second
+	 * @param path is the string path to the dictionary text file
+	 * @param loader builds a dictionary from the path (eg. TreeDictionary::new)
+	 */
+	public ReloadingDictionary(String path, Function<String, ? extends Dictionary> loader) {
+		this(path, loader, DEFAULT_POLL_MILLIS);
+	}
+
+	/**
+	 * This is the constructor for a reloading dictionary
+	 * The first dictionary is built before the constructor returns
+	 * @param path is the string path to the dictionary text file
+	 * @param loader builds a dictionary from the path (eg. TreeDictionary::new)
+	 * @param pollMillis is the time between checks of the file in milliseconds (0 never checks)
+	 */
+	public ReloadingDictionary(String path, Function<String, ? extends Dictionary> loader, long pollMillis) {
+		this.path = path;
+		this.loader = loader;
+
+		loadedStamp = stamp();
+		polledStamp = loadedStamp;
+		dictionary = loader.apply(path);
+
+		if( pollMillis > 0 ) {
+			poller = Executors.newSingleThreadScheduledExecutor(task -> {
+				Thread thread = new Thread(task, "dictionary-reload");
+				thread.setDaemon(true);
+				return thread;
+			});
+			poller.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+		}else {
+			poller = null;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signatureToWords(java.lang.String)
+	 * This function answers from the current snapshot
+	 */
+	@Override
+	public Set<String> signatureToWords(String signature) {
+		return dictionary.signatureToWords(signature);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * This function answers from the current snapshot
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+		return dictionary.topWords(signature, k);
+	}
+
+	/**
+	 * This function checks the dictionary file and reloads it once
+	 * a change has been stable for a whole poll interval
+	 */
+	private synchronized void poll() {
+
+		long stamp = stamp();
+
+		// Wait for the file to exist and to stop changing
+		if( stamp == 0 || stamp != polledStamp ) {
+			polledStamp = stamp;
+			return;
+		}
+
+		if( stamp != loadedStamp ) {
+			loadedStamp = stamp;
+			reload();
+		}
+	}
+
+	/**
+	 * This function builds a new dictionary from the file and swaps it in
+	 * If the build fails the current snapshot is kept
+	 * @return a boolean indicating whether a new snapshot was swapped in
+	 */
+	public synchronized boolean reload() {
+
+		Dictionary next;
+
+		/*
+		 * Try catch block building the new dictionary
+		 * If it fails, a message is printed along with the stack trace
+		 * and readers continue on the current snapshot
+		 */
+		try {
+			next = loader.apply(path);
+		}catch(RuntimeException e) {
+			System.out.println("Dictionary reload failed ...");
+			e.printStackTrace();
+			return false;
+		}
+
+		dictionary = next;
+		reloadCount++;
+
+		for(Consumer<Dictionary> listener : listeners) {
+			listener.accept(next);
+		}
+		return true;
+	}
+
+	/**
+	 * This function returns a value that changes whenever the file is modified
+	 * @return a combination of the modification time and length, or 0 if the file is missing
+	 */
+	private long stamp() {
+		File file = new File(path);
+		return file.lastModified() * 31 + file.length();
+	}
+
+	/**
+	 * This function adds a function to call with each new snapshot,
+	 * eg.) to clear a cache of results from the old snapshot
+	 * Listeners run on the reload thread after the new snapshot is visible to readers
+	 * @param listener is the function to call
+	 */
+	public void addReloadListener(Consumer<Dictionary> listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * This function removes a reload listener
+	 * @param listener is the function to remove
+	 */
+	public void removeReloadListener(Consumer<Dictionary> listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * This function returns the current snapshot
+	 * @return the dictionary currently serving queries
+	 */
+	public Dictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * This function returns the number of times the dictionary has been reloaded
+	 * @return the number of snapshots swapped in since the first load
+	 */
+	public long getReloadCount() {
+		return reloadCount;
+	}
+
+	/**
+	 * This function stops polling the dictionary file,
+	 * the current snapshot continues to serve queries
+	 */
+	@Override
+	public void close() {
+		if( poller != null ) {
+			poller.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,224 @@
+package com.emmanuelafoakwah.concurrent_dictionary;
+
+import com.emmanuelafoakwah.shared.MutableDictionary;
+import com.emmanuelafoakwah.tree_dictionary.Octree;
+import com.emmanuelafoakwah.tree_dictionary.TreeDictionary;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidWord;
+import static com.emmanuelafoakwah.shared.SignatureCodec.digitOf;
+import static com.emmanuelafoakwah.shared.WordFrequencies.*;
+
+/**
+ * This class details the Sharded Dictionary, a Tree Dictionary split into
+ * eight independent shards, one for each leading signature digit 2-9
+ * 
+ * Every signature (and every word) belongs to exactly one shard, so a query or
+ * update only ever touches the shard of its first digit
+ * Each shard is its own Tree Dictionary guarded by its own read-write lock:
+ * - queries take the read lock, so any number of them run together
+ * - addWord and removeWord take the write lock of their shard only,
+ * 		learning a word blocks queries for the same leading digit
+ * 		but never queries or updates in the other seven shards
+ * The results returned are immutable (see TreeDictionary), so they stay
+ * valid after the lock is released
+ * 
+ * As in the Tree Dictionary, words whose first letter has no digit cannot be stored
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class ShardedDictionary implements MutableDictionary {
+	
+	// Number of shards (one for each of the digits 2-9)
+	public static final int SHARDS = Octree.DEGREE;
+	
+	// Declaring String path
+	private String path;
+	
+	// The shards and their locks, indexed by leading digit - '2'
+	private final TreeDictionary[] shards = new TreeDictionary[SHARDS];
+	private final ReadWriteLock[] locks = new ReadWriteLock[SHARDS];
+	
+	/**
+	 * This is the constructor for the sharded dictionary
+	 * The words are read once and split by their leading digit,
+	 * then the shards are built in parallel
+	 * @param path is the string path to the dictionary text file
+	 */
+	public ShardedDictionary(String path) {
+		this.path = path;
+		
+		List<List<String>> words = new ArrayList<List<String>>();
+		List<Map<String, Integer>> frequencies = new ArrayList<Map<String, Integer>>();
+		
+		for(int i = 0; i<SHARDS; i++) {
+			words.add(new ArrayList<String>());
+			frequencies.add(new HashMap<String, Integer>());
+			locks[i] = new ReentrantReadWriteLock();
+		}
+		
+		getWords(words, frequencies);
+		
+		IntStream.range(0, SHARDS).parallel().forEach(i -> 
+				shards[i] = new TreeDictionary(words.get(i), frequencies.get(i)));
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signatureToWords(java.lang.String)
+	 * This function returns the trimmed words for the signature
+	 * from the shard of its first digit (as TreeDictionary.signatureToWords)
+	 */
+	@Override
+	public Set<String> signatureToWords(String signature) {
+		
+		int shard = signature.isEmpty() ? -1 : Octree.childIndex(signature.charAt(0));
+		
+		if( shard < 0 ) {
+			return new TreeSet<String>();
+		}
+		
+		locks[shard].readLock().lock();
+		
+		try {
+			return shards[shard].signatureToWords(signature);
+		}finally {
+			locks[shard].readLock().unlock();
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * This function returns the top k words from the shard of the first digit
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+		
+		int shard = signature.isEmpty() ? -1 : Octree.childIndex(signature.charAt(0));
+		
+		if( shard < 0 ) {
+			return new ArrayList<String>(0);
+		}
+		
+		locks[shard].readLock().lock();
+		
+		try {
+			return shards[shard].topWords(signature, k);
+		}finally {
+			locks[shard].readLock().unlock();
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.MutableDictionary#addWord(java.lang.String)
+	 * This function adds the word to its shard under the shard's write lock
+	 */
+	@Override
+	public boolean addWord(String word) {
+		
+		int shard = shardOf(word.toLowerCase());
+		
+		if( shard < 0 ) {
+			return false;
+		}
+		
+		locks[shard].writeLock().lock();
+		
+		try {
+			return shards[shard].addWord(word);
+		}finally {
+			locks[shard].writeLock().unlock();
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.MutableDictionary#removeWord(java.lang.String)
+	 * This function removes the word from its shard under the shard's write lock
+	 */
+	@Override
+	public boolean removeWord(String word) {
+		
+		int shard = shardOf(word.toLowerCase());
+		
+		if( shard < 0 ) {
+			return false;
+		}
+		
+		locks[shard].writeLock().lock();
+		
+		try {
+			return shards[shard].removeWord(word);
+		}finally {
+			locks[shard].writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * This function returns the shard of a word
+	 * @param word is the lower case word
+	 * @return the shard index, or -1 if the first letter of the word has no digit
+	 */
+	private static int shardOf(String word) {
+		return word.isEmpty() ? -1 : Octree.childIndex(digitOf(word.charAt(0)));
+	}
+	
+	/**
+	 * This function returns the shard for a leading digit, the shard must
+	 * not be modified or queried without holding the shard's lock
+	 * @param digit is the leading digit ('2' to '9')
+	 * @return the Tree Dictionary of the shard
+	 */
+	public TreeDictionary getShard(char digit) {
+		return shards[Octree.childIndex(digit)];
+	}
+	
+	/**
+	 * This function reads the contents of the input file line by line
+	 * adding the valid word on each line and its frequency to its shard
+	 * @param words holds the list of words for each shard
+	 * @param frequencies holds the word frequencies for each shard
+	 */
+	private void getWords(List<List<String>> words, List<Map<String, Integer>> frequencies) {
+		
+		// Declaring path to Dictionary text file
+		File file = new File(path);
+		
+		/*
+		 * Try catch block attempting to read the dictionary text file
+		 * If the file is not present, a message is printed
+		 * along with the stack trace
+		 */
+		try {
+			Scanner scan = new Scanner(file);
+			
+			while(scan.hasNextLine()) {
+				String line = scan.nextLine();
+				String dictWord = parseWord(line);
+				int frequency = parseFrequency(line);
+				int shard = shardOf(dictWord);
+				
+				if( shard >= 0 && isValidWord(dictWord) && frequency >= 0 ) {
+					words.get(shard).add(dictWord);
+					addFrequency(frequencies.get(shard), dictWord, frequency);
+				}
+			}
+			
+		}catch(FileNotFoundException e) {
+			System.out.println("File not found ...");
+			e.printStackTrace();
+		}
+	}
+	
+}
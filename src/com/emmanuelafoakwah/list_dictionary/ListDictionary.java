@@ -3,8 +3,14 @@ package com.emmanuelafoakwah.list_dictionary;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.*;
+import com.emmanuelafoakwah.metrics.DictionaryLoadEvent;
+import com.emmanuelafoakwah.metrics.MemoryEstimate;
+import com.emmanuelafoakwah.metrics.MetricsRegistry;
 import com.emmanuelafoakwah.shared.Dictionary;
 import static com.emmanuelafoakwah.prototype.PredictivePrototype.*;
+import static com.emmanuelafoakwah.shared.WordFrequencies.*;
+import static com.emmanuelafoakwah.shared.Constants.PARALLEL_BUILD_THRESHOLD;
+import static com.emmanuelafoakwah.shared.Dictionary.sortedSignatures;
 
 /**
  * This class details the dictionary arraylist of WordSig entries
@@ -19,14 +25,29 @@ public class ListDictionary implements Dictionary {
 	
 	// Declaring the arraylist storing the dictionary entries
 	ArrayList<WordSig> dictionary = new ArrayList<WordSig>();
+	
+	// Number of lines loaded and rejected (invalid word or frequency) by the last load
+	private int wordsLoaded;
+	private int wordsRejected;
+	
+	// Orders entries by signature, then by descending frequency, then alphabetically
+	private static final Comparator<WordSig> RANK_ORDER = Comparator.<WordSig>naturalOrder()
+			.thenComparingInt(ws -> -ws.getFrequency())
+			.thenComparing(WordSig::getWords);
 
 	/**
 	 * This is the constructor for the ListDictionary class
 	 * @param path to the dictionary file
 	 */
 	public ListDictionary(String path) {
+		long start = MetricsRegistry.ENABLED ? System.nanoTime() : 0;
+		
 		this.path = path;
 		dictionary = storeDictionary();
+		
+		if( MetricsRegistry.ENABLED ) {
+			MetricsRegistry.recordLoad("list", start, wordsLoaded, wordsRejected, estimateRetainedBytes());
+		}
 	}
 	
 	/**
@@ -41,6 +62,9 @@ public class ListDictionary implements Dictionary {
 	/**
 	 * This function reads the dictionary file and populates the 
 	 * dictionary arraylist with the corresponding WordSig entries
+	 * Entries are sorted by signature, and entries with the same signature
+	 * by descending frequency (then alphabetically), so the entries for
+	 * a signature are already in rank order
 	 * @return an arraylist dictionary converted from the dictionary file
 	 */
 	public ArrayList<WordSig> storeDictionary(){
@@ -48,14 +72,16 @@ public class ListDictionary implements Dictionary {
 		// Creating the file to read from
 		File file = new File(path);
 		
-		// Generating the arraylist to store the entries
-		ArrayList<WordSig> dict = new ArrayList<WordSig>();
+		// Total frequency of each distinct word (in file order)
+		Map<String, Integer> frequencies = new LinkedHashMap<String, Integer>();
+		
+		// The read and build phases are recorded as flight recorder events
+		DictionaryLoadEvent event = DictionaryLoadEvent.start(this, DictionaryLoadEvent.READ, path);
 		
 		/*
 		 * Try-catch statement attempting to read file 
-		 * If the file is present the scanner scans each word
-		 * adding a WordSig entry using the wordToSignature function 
-		 * to generate the appropriate signature
+		 * If the file is present the scanner scans each line
+		 * recording the word and adding up its frequency
 		 * If the file is not present an error message is printed 
 		 * along with the stack trace  
 		 */
@@ -64,11 +90,15 @@ public class ListDictionary implements Dictionary {
 			
 			while(scan.hasNextLine()) {
 				
-				String dictWord = scan.nextLine().toLowerCase();
+				String line = scan.nextLine();
+				String dictWord = parseWord(line);
+				int frequency = parseFrequency(line);
 				
-				if( isValidWord(dictWord) ) {
-					WordSig add = new WordSig(dictWord, wordToSignature(dictWord));
-					dict.add(add);
+				if( isValidWord(dictWord) && frequency >= 0 ) {
+					frequencies.merge(dictWord, frequency, (a, b) -> (int) Math.min(Integer.MAX_VALUE, (long) a + b));
+					wordsLoaded++;
+				}else {
+					wordsRejected++;
 				}
 			}
 			
@@ -76,12 +106,48 @@ public class ListDictionary implements Dictionary {
 			System.out.println("File not found ...");
 			e.printStackTrace();
 		}
+		event.finish(frequencies.size());
 		
-		// Return the sorted arraylist
-		Collections.sort(dict);
+		event = DictionaryLoadEvent.start(this, DictionaryLoadEvent.BUILD, path);
+		
+		// Large dictionaries generate and sort the entries in parallel
+		if( frequencies.size() >= PARALLEL_BUILD_THRESHOLD ) {
+			ArrayList<WordSig> dict = storeDictionaryParallel(frequencies);
+			event.finish(dict.size());
+			return dict;
+		}
+		
+		// Generating the arraylist of entries, using the wordToSignature
+		// function to generate the appropriate signature
+		ArrayList<WordSig> dict = new ArrayList<WordSig>(frequencies.size());
+		
+		for(Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+			dict.add(new WordSig(entry.getKey(), wordToSignature(entry.getKey()), entry.getValue()));
+		}
+		
+		// Return the arraylist sorted by signature and then rank
+		Collections.sort(dict, RANK_ORDER);
+		event.finish(dict.size());
 		return dict;
 	}
 	
+	/**
+	 * This function generates the dictionary entries on the common ForkJoinPool:
+	 * the signatures are computed by a parallel stream over the words and the
+	 * entries are sorted with Arrays.parallelSort (a parallel merge sort)
+	 * @param frequencies is the total frequency of each distinct word
+	 * @return an arraylist of entries sorted by signature and then rank
+	 */
+	private static ArrayList<WordSig> storeDictionaryParallel(Map<String, Integer> frequencies) {
+		
+		WordSig[] entries = frequencies.entrySet().parallelStream()
+				.map(entry -> new WordSig(entry.getKey(), wordToSignature(entry.getKey()), entry.getValue()))
+				.toArray(WordSig[]::new);
+		
+		Arrays.parallelSort(entries, RANK_ORDER);
+		return new ArrayList<WordSig>(Arrays.asList(entries));
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see predictive.Dictionary#signatureToWords(java.lang.String)
@@ -96,10 +162,63 @@ public class ListDictionary implements Dictionary {
 		return binarySearch(signature, dictionary);
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * The entries for a signature are stored in rank order, so the
+	 * top k words are the first k entries of the matching range
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+		
+		int from = lowerBound(signature, dictionary);
+		int to = Math.min(upperBound(signature, dictionary, from), from + Math.max(k, 0));
+		
+		List<String> out = new ArrayList<String>(to - from);
+		
+		for(int i = from; i<to; i++) {
+			out.add(dictionary.get(i).getWords());
+		}
+		return out;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signaturesToWords(java.util.Collection)
+	 * The signatures are looked up in sorted order, so the matching ranges
+	 * are visited front to back: each search gallops forward from the end of
+	 * the previous range and each range is then scanned sequentially
+	 */
+	@Override
+	public Map<String, Set<String>> signaturesToWords(Collection<String> signatures) {
+		
+		String[] sorted = sortedSignatures(signatures);
+		Map<String, Set<String>> out = new HashMap<String, Set<String>>(sorted.length * 4 / 3 + 1);
+		int position = 0;
+		
+		for(String signature : sorted) {
+			
+			Set<String> words = new TreeSet<String>();
+			position = lowerBound(signature, dictionary, position);
+			
+			// Scan the range of entries with a matching signature
+			while( position < dictionary.size() && dictionary.get(position).getSignature().equals(signature) ) {
+				words.add(dictionary.get(position).getWords());
+				position++;
+			}
+			out.put(signature, words);
+		}
+		return out;
+	}
+	
 	/**
 	 * This function performs a binary search of a given arraylist 
 	 * of WordSig entries for a given signature, returning a set of 
 	 * Words which match the given signature
+	 * The matching entries sit next to each other in the sorted arraylist,
+	 * so the first and last matches are located with lower and upper bound
+	 * searches and the range between them is copied out in a single pass.
+	 * The arraylist is only read, never modified
 	 * @param signature
 	 * @param d
 	 * @return a set of words matching the input signature
@@ -109,24 +228,127 @@ public class ListDictionary implements Dictionary {
 		// Declaring the output Set
 		Set<String> out = new TreeSet<String>();
 		
-		// Storing dictionary to edit on iterations
-		ArrayList<WordSig> copyd = d;
+		// Locate the range [from, to) of entries with a matching signature
+		int from = lowerBound(signature, d);
+		int to = upperBound(signature, d, from);
 		
-		// Scan above and below every found word until there are no more matches
-		while(Collections.binarySearch(d, new WordSig(null, signature))>=0){
-			
-			// Store the index of the entry in the ArrayList
-			int index = Collections.binarySearch(d, new WordSig(null, signature));
-			
-			// Add the word from that index to the output set
-			out.add(d.get(index).getWords());
+		// Add the word of every entry in the range to the output set
+		for(int i = from; i<to; i++) {
+			out.add(d.get(i).getWords());
+		}
+		return out;
+	}
+	
+	/**
+	 * This function returns the index of the first entry whose signature
+	 * is not less than the given signature
+	 * @param signature is the signature to search for
+	 * @param d is the sorted arraylist of entries to search
+	 * @return the index of the first entry with signature >= the given signature
+	 */
+	public static int lowerBound(String signature, List<WordSig> d) {
+		
+		int low = 0;
+		int high = d.size();
+		
+		// Narrow the range until low is the first entry that is not smaller
+		while(low < high) {
+			int mid = (low + high) >>> 1;
 			
-			// Remove the stored word from the dictionary 
-			copyd.remove(index);
+			if( d.get(mid).getSignature().compareTo(signature) < 0 ) {
+				low = mid + 1;
+			}else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * This function returns the index of the first entry whose signature
+	 * is not less than the given signature, searching forward from the given index
+	 * The search gallops (doubling its step) from the given index before
+	 * a binary search, so it is fastest when the entry is close by
+	 * @param signature is the signature to search for
+	 * @param d is the sorted arraylist of entries to search
+	 * @param from is the index to start from (every entry before it must be smaller)
+	 * @return the index of the first entry with signature >= the given signature
+	 */
+	public static int lowerBound(String signature, List<WordSig> d, int from) {
+		
+		int low = from;
+		int high = from;
+		int step = 1;
+		
+		// Gallop until the entry at high is not smaller (or the end is reached)
+		while( high < d.size() && d.get(high).getSignature().compareTo(signature) < 0 ) {
+			low = high + 1;
+			high = low + step;
+			step <<= 1;
+		}
+		high = Math.min(high, d.size());
+		
+		// Narrow the range until low is the first entry that is not smaller
+		while(low < high) {
+			int mid = (low + high) >>> 1;
 			
+			if( d.get(mid).getSignature().compareTo(signature) < 0 ) {
+				low = mid + 1;
+			}else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * This function returns the number of lines rejected by the last load
+	 * @return the number of lines with an invalid word or frequency
+	 */
+	public int getWordsRejected() {
+		return wordsRejected;
+	}
+	
+	/**
+	 * This function estimates the heap retained by the dictionary (see MemoryEstimate)
+	 * @return the estimated number of bytes
+	 */
+	public long estimateRetainedBytes() {
+		
+		// The arraylist and, for each entry, the WordSig and its two Strings
+		long out = MemoryEstimate.referenceArrayBytes(dictionary.size());
+		
+		for(WordSig entry : dictionary) {
+			out += 24 + MemoryEstimate.stringBytes(entry.getWords()) + MemoryEstimate.stringBytes(entry.getSignature());
 		}
 		return out;
 	}
+	
+	/**
+	 * This function returns the index of the first entry whose signature
+	 * is greater than the given signature, searching from the given index
+	 * @param signature is the signature to search for
+	 * @param d is the sorted arraylist of entries to search
+	 * @param from is the index to start searching from (eg. the lower bound)
+	 * @return the index of the first entry with signature > the given signature
+	 */
+	public static int upperBound(String signature, List<WordSig> d, int from) {
+		
+		int low = from;
+		int high = d.size();
+		
+		// Narrow the range until low is the first entry that is larger
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			
+			if( d.get(mid).getSignature().compareTo(signature) <= 0 ) {
+				low = mid + 1;
+			}else {
+				high = mid;
+			}
+		}
+		return low;
+	}
 }
 
 
@@ -1,11 +1,14 @@
 package com.emmanuelafoakwah.list_dictionary;
 
-import com.emmanuelafoakwah.prototype.PredictivePrototype;
+import com.emmanuelafoakwah.metrics.MetricsRegistry;
 import com.emmanuelafoakwah.shared.Dictionary;
+import com.emmanuelafoakwah.shared.QueryStream;
 import static com.emmanuelafoakwah.shared.Constants.DICTIONARY_PATH;
 
 /**
  * This command line program runs the List Sigs2Words() function
+ * for the signatures given as arguments, read from standard input ("-")
+ * or read from a file ("-f path"), see QueryStream
  * @author Emmanuel Afoakwah
  */
 public class Sigs2WordsList {
@@ -13,14 +16,9 @@ public class Sigs2WordsList {
 	public static void main(String[] args) {
 		
 		// Creating an instance of the dictionary
-		Dictionary ld = new ListDictionary(DICTIONARY_PATH);
+		Dictionary ld = MetricsRegistry.instrument("list", new ListDictionary(DICTIONARY_PATH));
 		
-		// Loop through the args array returning matching words with the given signature
-		for(int i = 0; i<args.length; i++) {
-			
-			if(PredictivePrototype.isValidSignature(args[i])) {
-				System.out.println(args[i] + ": " + ld.signatureToWords(args[i]));
-			}
-		}
+		// Answer the signatures given as arguments, standard input or files
+		new QueryStream(ld).run(args);
 	}
 }
@@ -11,6 +11,7 @@ public class WordSig implements Comparable<WordSig>{
 	// Declaring variables
 	private String words;
 	private String signature;
+	private int frequency;
 	
 	/**
 	 * This is the construction for the WordSig class
@@ -19,8 +20,19 @@ public class WordSig implements Comparable<WordSig>{
 	 * @param signature is the signature to assign to the entry
 	 */
 	public WordSig(String words, String signature) {
+		this(words, signature, 0);
+	}
+	
+	/**
+	 * This is the construction for a WordSig entry with a frequency
+	 * @param words is the word to assign to the entry
+	 * @param signature is the signature to assign to the entry
+	 * @param frequency is the frequency of the word
+	 */
+	public WordSig(String words, String signature, int frequency) {
 		this.words = words;
 		this.signature = signature;
+		this.frequency = frequency;
 	}
 	
 	/**
@@ -39,6 +51,14 @@ public class WordSig implements Comparable<WordSig>{
 		return signature;
 	}
 
+	/**
+	 * This functions retrieves the frequency of the word in this dictionary entry
+	 * @return the frequency of the word (0 if unknown)
+	 */
+	public int getFrequency() {
+		return frequency;
+	}
+
 	/* (non-Javadoc)
 	 * @see java.lang.Comparable#compareTo(java.lang.Object)
 	 * Function defines how one entry can be compared to another
@@ -60,7 +80,7 @@ public class WordSig implements Comparable<WordSig>{
 	@Override
 	// Overrides toString() for easy printing
 	public String toString() {
-		return "WordSig [words=" + words + ", signature=" + signature + "]";
+		return "WordSig [words=" + words + ", signature=" + signature + ", frequency=" + frequency + "]";
 	}
 
 }
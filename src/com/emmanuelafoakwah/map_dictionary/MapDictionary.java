@@ -1,29 +1,54 @@
 package com.emmanuelafoakwah.map_dictionary;
 
-import com.emmanuelafoakwah.shared.Dictionary;
+import com.emmanuelafoakwah.metrics.MemoryEstimate;
+import com.emmanuelafoakwah.metrics.DictionaryLoadEvent;
+import com.emmanuelafoakwah.metrics.MetricsRegistry;
+import com.emmanuelafoakwah.shared.MutableDictionary;
 import static com.emmanuelafoakwah.prototype.PredictivePrototype.*;
+import static com.emmanuelafoakwah.shared.SignatureCodec.NO_KEY;
+import static com.emmanuelafoakwah.shared.SignatureCodec.digitOf;
+import static com.emmanuelafoakwah.shared.SignatureCodec.packSignature;
+import static com.emmanuelafoakwah.shared.SignatureCodec.packWord;
+import static com.emmanuelafoakwah.shared.WordFrequencies.*;
+import static com.emmanuelafoakwah.shared.Constants.PARALLEL_BUILD_THRESHOLD;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * This class details the Map Dictionary which is comprised of a TreeMap
  * The signatureToWords function required by the Dictionary interface, 
  * returns the set of words for a given dictionary pertaining to 
  * the input signature
+ * 
+ * In packed mode the signatures are stored as long keys (see SignatureCodec)
+ * in an open addressing SignatureTable instead of the TreeMap,
+ * only signatures that cannot be packed are kept in the TreeMap
+ * 
+ * The words of each signature are also kept ranked by frequency
+ * (see WordFrequencies) for the topWords function
+ * 
+ * Words can be added and removed after the map is built (see MutableDictionary),
+ * only the entry for the word's signature is updated
  * @author Emmanuel Afoakwah
  */
-public class MapDictionary implements Dictionary {
+public class MapDictionary implements MutableDictionary {
 	
 	// Declaring String path
 	private String path;
 	
-	// ArrayList to store dictionary
+	// ArrayList to store the words loaded from the dictionary file
 	ArrayList<String> words = new ArrayList<String>();
 	
 	/*
@@ -32,6 +57,25 @@ public class MapDictionary implements Dictionary {
 	 *  values: set of words pertaining to that signature
 	 */
 	Map<String, Set<String>> mapDictionary = new TreeMap<String, Set<String>>();
+	
+	// Whether the dictionary is stored with packed signature keys
+	private boolean packedKeys;
+	
+	// Packed Dictionary (key: packed signature, values: set of words)
+	SignatureTable<Set<String>> packedDictionary;
+	
+	// Total frequency of each word with a non-zero frequency
+	Map<String, Integer> frequencies = new HashMap<String, Integer>();
+	
+	// Words of each signature in rank order (string and packed keys)
+	Map<String, String[]> rankedDictionary = new HashMap<String, String[]>();
+	SignatureTable<String[]> rankedPacked;
+	
+	// Number of lines rejected by the last load (invalid word or frequency)
+	private int wordsRejected;
+	
+	// Number of shards of a parallel build (one per leading digit 2-9, one for the rest)
+	private static final int SHARDS = 9;
 
 	/**
 	 * This is the constructor for the Map Dictionary class
@@ -43,22 +87,79 @@ public class MapDictionary implements Dictionary {
 	 * @param path is the String path to the Dictionary text file  
 	 */
 	public MapDictionary(String path) {
+		this(path, false);
+	}
+	
+	/**
+	 * This is the constructor for the Map Dictionary class
+	 * with a choice of signature key storage
+	 * @param path is the String path to the Dictionary text file
+	 * @param packedKeys is true to store the signatures as packed long keys
+	 */
+	public MapDictionary(String path, boolean packedKeys) {
+		long start = MetricsRegistry.ENABLED ? System.nanoTime() : 0;
+		
 		this.path = path;
+		this.packedKeys = packedKeys;
+		
+		// Each phase of the load is recorded as a flight recorder event
+		DictionaryLoadEvent event = DictionaryLoadEvent.start(this, DictionaryLoadEvent.READ, path);
 		words = getWords();
-		mapDictionary = storeMapDictionary();
+		event.finish(words.size());
+		
+		event = DictionaryLoadEvent.start(this, DictionaryLoadEvent.BUILD, path);
+		if( packedKeys ) {
+			packedDictionary = storePackedDictionary();
+		}else {
+			mapDictionary = storeMapDictionary();
+		}
+		event.finish(words.size());
+		
+		event = DictionaryLoadEvent.start(this, DictionaryLoadEvent.RANK, path);
+		storeRankedWords();
+		event.finish(words.size());
+		
+		if( MetricsRegistry.ENABLED ) {
+			MetricsRegistry.recordLoad(packedKeys ? "map-packed" : "map", start, 
+					words.stream().filter(w -> isValidWord(w)).count(), wordsRejected, estimateRetainedBytes());
+		}
 	}
 	
 	/**
 	 * This function returns Map Dictionary
+	 * In packed mode the map is rebuilt from the packed table on each call
 	 * @return the Map Dictionary
 	 */
 	public Map<String, Set<String>> getMapDictionary() {
+		
+		if( packedKeys ) {
+			Map<String, Set<String>> out = new TreeMap<String, Set<String>>(mapDictionary);
+			packedDictionary.forEach(out::put);
+			return out;
+		}
 		return mapDictionary;
 	}
+	
+	/**
+	 * This function checks whether the dictionary uses packed signature keys
+	 * @return a boolean indicating whether packed keys are used
+	 */
+	public boolean isPackedKeys() {
+		return packedKeys;
+	}
 
 	
+	/**
+	 * This function stores the Map Dictionary as defined by the words arraylist
+	 * Large dictionaries are built in parallel (see storeMapDictionaryParallel)
+	 * @return a TreeMap from each signature to its set of words
+	 */
 	public TreeMap<String, Set<String> > storeMapDictionary() {
 		
+		if( words.size() >= PARALLEL_BUILD_THRESHOLD ) {
+			return storeMapDictionaryParallel();
+		}
+		
 		// Declaring the Map Dictionary to return
 		Map<String, Set<String>> mapDict = new TreeMap<String, Set<String>>();
 		
@@ -84,6 +185,384 @@ public class MapDictionary implements Dictionary {
 		return (TreeMap<String, Set<String>>) mapDict;	
 	}
 	
+	/**
+	 * This function stores the Map Dictionary on the common ForkJoinPool:
+	 * 1) the signatures of the words are computed by a parallel stream
+	 * 2) one task per shard (leading digit) builds a partial map of its signatures
+	 * 3) the partial maps hold different signatures, so they are merged by copying
+	 * @return a TreeMap from each signature to its set of words
+	 */
+	public TreeMap<String, Set<String>> storeMapDictionaryParallel() {
+		
+		// Compute the signature of every valid word (null for invalid words)
+		String[] signatures = new String[words.size()];
+		
+		IntStream.range(0, words.size()).parallel().forEach(i -> {
+			if( isValidWord(words.get(i)) ) {
+				signatures[i] = wordToSignature(words.get(i));
+			}
+		});
+		
+		// Build the partial map of each shard
+		List<Map<String, Set<String>>> partials = IntStream.range(0, SHARDS).parallel().mapToObj(shard -> {
+			
+			Map<String, Set<String>> partial = new HashMap<String, Set<String>>();
+			
+			for(int i = 0; i<signatures.length; i++) {
+				if( signatures[i] != null && shardOf(signatures[i]) == shard ) {
+					partial.computeIfAbsent(signatures[i], s -> new TreeSet<String>()).add(words.get(i));
+				}
+			}
+			return partial;
+		}).collect(Collectors.toList());
+		
+		// Merge the partial maps
+		TreeMap<String, Set<String>> out = new TreeMap<String, Set<String>>();
+		
+		for(Map<String, Set<String>> partial : partials) {
+			out.putAll(partial);
+		}
+		return out;
+	}
+	
+	/**
+	 * This function returns the shard of a signature for a parallel build
+	 * @param signature is the signature
+	 * @return the shard number (1-8 for the digits 2-9, 0 for anything else)
+	 */
+	private static int shardOf(String signature) {
+		return signature.isEmpty() ? 0 : shardOf(signature.charAt(0));
+	}
+	
+	/**
+	 * This function returns the shard of a leading signature digit for a parallel build
+	 * @param digit is the first digit of a signature
+	 * @return the shard number (1-8 for the digits 2-9, 0 for anything else)
+	 */
+	private static int shardOf(char digit) {
+		return (digit < '2' || digit > '9') ? 0 : digit - '1';
+	}
+	
+	/**
+	 * This function stores the dictionary in a SignatureTable keyed by packed 
+	 * signatures, signatures too long to pack (or containing non-digit characters)
+	 * are added to the Map Dictionary instead
+	 * Large dictionaries are built in parallel (see storePackedDictionaryParallel)
+	 * @return a SignatureTable storing the dictionary words
+	 */
+	public SignatureTable<Set<String>> storePackedDictionary() {
+		
+		if( words.size() >= PARALLEL_BUILD_THRESHOLD ) {
+			return storePackedDictionaryParallel();
+		}
+		
+		// Declaring the table to return
+		SignatureTable<Set<String>> table = new SignatureTable<Set<String>>(words.size() / 2);
+		
+		for(String dictWord : words) {
+			
+			// If the keyword is a valid word add an entry to the table
+			if( isValidWord(dictWord) ) {
+				
+				// Encode the word straight into its key
+				long key = packWord(dictWord);
+				
+				// Fall back to the Map Dictionary for signatures without a key
+				if( key == NO_KEY ) {
+					mapDictionary.computeIfAbsent(wordToSignature(dictWord), s -> new TreeSet<String>()).add(dictWord);
+					continue;
+				}
+				
+				Set<String> entry = table.get(key);
+				
+				if( entry == null ) {
+					entry = new TreeSet<String>();
+					table.put(key, entry);
+				}
+				entry.add(dictWord);
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * This function stores the packed dictionary on the common ForkJoinPool,
+	 * as storeMapDictionaryParallel with a partial table per shard
+	 * @return a SignatureTable storing the dictionary words
+	 */
+	public SignatureTable<Set<String>> storePackedDictionaryParallel() {
+		
+		// Pack the signature of every valid word and find its shard (-1 for invalid words)
+		long[] keys = new long[words.size()];
+		int[] shards = new int[words.size()];
+		
+		IntStream.range(0, words.size()).parallel().forEach(i -> {
+			String dictWord = words.get(i);
+			
+			if( isValidWord(dictWord) ) {
+				keys[i] = packWord(dictWord);
+				shards[i] = dictWord.isEmpty() ? 0 : shardOf(digitOf(dictWord.charAt(0)));
+			}else {
+				shards[i] = -1;
+			}
+		});
+		
+		// Build the partial table (and the partial map of unpacked signatures) of each shard
+		List<SignatureTable<Set<String>>> tables = new ArrayList<SignatureTable<Set<String>>>();
+		List<Map<String, Set<String>>> unpacked = new ArrayList<Map<String, Set<String>>>();
+		
+		for(int shard = 0; shard<SHARDS; shard++) {
+			tables.add(new SignatureTable<Set<String>>(words.size() / (2 * SHARDS)));
+			unpacked.add(new HashMap<String, Set<String>>());
+		}
+		
+		IntStream.range(0, SHARDS).parallel().forEach(shard -> {
+			
+			SignatureTable<Set<String>> table = tables.get(shard);
+			Map<String, Set<String>> map = unpacked.get(shard);
+			
+			for(int i = 0; i<keys.length; i++) {
+				
+				if( shards[i] != shard ) {
+					continue;
+				}
+				
+				String dictWord = words.get(i);
+				
+				if( keys[i] == NO_KEY ) {
+					map.computeIfAbsent(wordToSignature(dictWord), s -> new TreeSet<String>()).add(dictWord);
+					continue;
+				}
+				
+				Set<String> entry = table.get(keys[i]);
+				
+				if( entry == null ) {
+					entry = new TreeSet<String>();
+					table.put(keys[i], entry);
+				}
+				entry.add(dictWord);
+			}
+		});
+		
+		// Merge the partial tables and maps
+		SignatureTable<Set<String>> out = new SignatureTable<Set<String>>(words.size() / 2);
+		
+		for(int shard = 0; shard<SHARDS; shard++) {
+			out.putAll(tables.get(shard));
+			mapDictionary.putAll(unpacked.get(shard));
+		}
+		return out;
+	}
+	
+	/**
+	 * This function ranks the words of every signature by frequency
+	 * (see WordFrequencies), so that topWords does not need to sort
+	 * Large dictionaries rank the signatures in parallel
+	 */
+	public void storeRankedWords() {
+		
+		if( words.size() >= PARALLEL_BUILD_THRESHOLD ) {
+			storeRankedWordsParallel();
+			return;
+		}
+		
+		// Rank the signatures kept in the Map Dictionary
+		for(Map.Entry<String, Set<String>> entry : mapDictionary.entrySet()) {
+			rankedDictionary.put(entry.getKey(), rank(entry.getValue(), frequencies));
+		}
+		
+		// Rank the signatures kept in the packed table
+		if( packedKeys ) {
+			rankedPacked = new SignatureTable<String[]>(packedDictionary.size());
+			packedDictionary.forEach((signature, set) ->
+					rankedPacked.put(packSignature(signature), rank(set, frequencies)));
+		}
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.MutableDictionary#addWord(java.lang.String)
+	 * This function adds the word to the set for its signature and 
+	 * inserts it at its rank in the ranked words of the signature
+	 */
+	@Override
+	public synchronized boolean addWord(String word) {
+		
+		String dictWord = word.toLowerCase();
+		
+		if( dictWord.isEmpty() || !isValidWord(dictWord) ) {
+			return false;
+		}
+		
+		String signature = wordToSignature(dictWord);
+		long key = packedKeys ? packWord(dictWord) : NO_KEY;
+		
+		// Find or create the set for the signature
+		Set<String> entry = (key != NO_KEY) ? packedDictionary.get(key) : mapDictionary.get(signature);
+		
+		if( entry == null ) {
+			entry = new TreeSet<String>();
+			
+			if( key != NO_KEY ) {
+				packedDictionary.put(key, entry);
+			}else {
+				mapDictionary.put(signature, entry);
+			}
+		}
+		
+		if( !entry.add(dictWord) ) {
+			return false;
+		}
+		
+		// Insert the word into a new copy of the ranked words
+		String[] ranked = getRanked(signature, key);
+		int index = -Arrays.binarySearch(ranked, dictWord, byFrequency(frequencies)) - 1;
+		String[] out = new String[ranked.length + 1];
+		
+		System.arraycopy(ranked, 0, out, 0, index);
+		out[index] = dictWord;
+		System.arraycopy(ranked, index, out, index + 1, ranked.length - index);
+		
+		putRanked(signature, key, out);
+		return true;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.MutableDictionary#removeWord(java.lang.String)
+	 * This function removes the word from the set and the ranked words of its signature
+	 * A signature left with no words is removed from the Map Dictionary,
+	 * in the packed table (which has no removal) its entry is left empty
+	 */
+	@Override
+	public synchronized boolean removeWord(String word) {
+		
+		String dictWord = word.toLowerCase();
+		String signature = wordToSignature(dictWord);
+		long key = packedKeys ? packWord(dictWord) : NO_KEY;
+		
+		Set<String> entry = (key != NO_KEY) ? packedDictionary.get(key) : mapDictionary.get(signature);
+		
+		if( entry == null || !entry.remove(dictWord) ) {
+			return false;
+		}
+		
+		// Remove the word from a new copy of the ranked words
+		String[] ranked = getRanked(signature, key);
+		int index = Arrays.asList(ranked).indexOf(dictWord);
+		String[] out = new String[ranked.length - 1];
+		
+		System.arraycopy(ranked, 0, out, 0, index);
+		System.arraycopy(ranked, index + 1, out, index, out.length - index);
+		
+		frequencies.remove(dictWord);
+		
+		if( entry.isEmpty() && key == NO_KEY ) {
+			mapDictionary.remove(signature);
+			rankedDictionary.remove(signature);
+		}else {
+			putRanked(signature, key, out);
+		}
+		return true;
+	}
+	
+	/**
+	 * This function returns the ranked words stored for a signature
+	 * @param signature is the signature
+	 * @param key is the packed signature, or NO_KEY if the signature is in the Map Dictionary
+	 * @return the ranked words, empty if there are none
+	 */
+	private String[] getRanked(String signature, long key) {
+		String[] out = (key != NO_KEY) ? rankedPacked.get(key) : rankedDictionary.get(signature);
+		return (out == null) ? new String[0] : out;
+	}
+	
+	/**
+	 * This function stores the ranked words for a signature
+	 * @param signature is the signature
+	 * @param key is the packed signature, or NO_KEY if the signature is in the Map Dictionary
+	 * @param ranked are the words of the signature in rank order
+	 */
+	private void putRanked(String signature, long key, String[] ranked) {
+		if( key != NO_KEY ) {
+			rankedPacked.put(key, ranked);
+		}else {
+			rankedDictionary.put(signature, ranked);
+		}
+	}
+	
+	/**
+	 * This function ranks the words of every signature with a parallel stream
+	 * The ranked arrays are computed in parallel and then stored on this thread,
+	 * as the maps and tables are not thread-safe
+	 */
+	private void storeRankedWordsParallel() {
+		
+		rankedDictionary.putAll(mapDictionary.entrySet().parallelStream()
+				.collect(Collectors.toMap(Map.Entry::getKey, entry -> rank(entry.getValue(), frequencies))));
+		
+		if( packedKeys ) {
+			List<String> signatures = new ArrayList<String>(packedDictionary.size());
+			List<Set<String>> sets = new ArrayList<Set<String>>(packedDictionary.size());
+			
+			packedDictionary.forEach((signature, set) -> {
+				signatures.add(signature);
+				sets.add(set);
+			});
+			
+			String[][] ranked = new String[sets.size()][];
+			IntStream.range(0, ranked.length).parallel().forEach(i -> ranked[i] = rank(sets.get(i), frequencies));
+			
+			rankedPacked = new SignatureTable<String[]>(packedDictionary.size());
+			
+			for(int i = 0; i<ranked.length; i++) {
+				rankedPacked.put(packSignature(signatures.get(i)), ranked[i]);
+			}
+		}
+	}
+	
+	/**
+	 * This function returns the number of lines rejected by the last load
+	 * @return the number of lines with an invalid word or frequency
+	 */
+	public int getWordsRejected() {
+		return wordsRejected;
+	}
+	
+	/**
+	 * This function estimates the heap retained by the dictionary (see MemoryEstimate)
+	 * @return the estimated number of bytes
+	 */
+	public long estimateRetainedBytes() {
+		
+		// The words arraylist and the words themselves
+		long out = MemoryEstimate.referenceArrayBytes(words.size());
+		
+		for(String word : words) {
+			out += MemoryEstimate.stringBytes(word);
+		}
+		
+		// Signatures in the Map Dictionary, their word sets and ranked words
+		for(Map.Entry<String, Set<String>> entry : mapDictionary.entrySet()) {
+			out += MemoryEstimate.TREE_ENTRY_BYTES + MemoryEstimate.stringBytes(entry.getKey())
+					+ MemoryEstimate.TREE_SET_BYTES + entry.getValue().size() * MemoryEstimate.TREE_ENTRY_BYTES
+					+ MemoryEstimate.HASH_ENTRY_BYTES + MemoryEstimate.referenceArrayBytes(entry.getValue().size());
+		}
+		
+		// Signatures in the packed tables (a long key and a reference per slot)
+		if( packedKeys ) {
+			out += 2 * 12L * packedDictionary.capacity();
+			
+			long[] setBytes = new long[1];
+			packedDictionary.forEach((signature, set) -> setBytes[0] += MemoryEstimate.TREE_SET_BYTES 
+					+ set.size() * MemoryEstimate.TREE_ENTRY_BYTES + MemoryEstimate.referenceArrayBytes(set.size()));
+			out += setBytes[0];
+		}
+		
+		// Frequencies (entry and boxed Integer)
+		return out + frequencies.size() * (MemoryEstimate.HASH_ENTRY_BYTES + 16);
+	}
+	
 	/**
 	 * This function returns a set of words pertaining to the given
 	 * input signature as defined by the given dictionary
@@ -120,7 +599,8 @@ public class MapDictionary implements Dictionary {
 	
 	/**
 	 * This function reads the contents of the input file line by line 
-	 * adding the string on each line to the output arraylist
+	 * adding the word on each line to the output arraylist
+	 * and its frequency (if any) to the frequencies map
 	 * @return an arraylist of strings representing the words in the dictionary text file
 	 */
 	public ArrayList<String> getWords(){
@@ -143,8 +623,20 @@ public class MapDictionary implements Dictionary {
 			Scanner scan = new Scanner(file);
 			
 			while(scan.hasNextLine()) {
-				String dictWord = scan.nextLine().toLowerCase();
-				out.add(dictWord);
+				String line = scan.nextLine();
+				String dictWord = parseWord(line);
+				int frequency = parseFrequency(line);
+				
+				// Skip lines with an invalid frequency
+				if( frequency >= 0 ) {
+					out.add(dictWord);
+					addFrequency(frequencies, dictWord, frequency);
+				}
+				
+				// Invalid words are kept in the list but never stored
+				if( frequency < 0 || !isValidWord(dictWord) ) {
+					wordsRejected++;
+				}
 			}
 			
 		}catch(FileNotFoundException e) {
@@ -157,6 +649,16 @@ public class MapDictionary implements Dictionary {
 	@Override
 	public Set<String> signatureToWords(String signature) {
 		
+		// In packed mode look the signature up in the table first
+		if( packedKeys ) {
+			long key = packSignature(signature);
+			
+			if( key != NO_KEY ) {
+				Set<String> out = packedDictionary.get(key);
+				return (out == null) ? new TreeSet<String>() : out;
+			}
+		}
+		
 		/*
 		 * If the map dictionary contains the signature,
 		 * return the corresponding set of string words
@@ -167,4 +669,28 @@ public class MapDictionary implements Dictionary {
 		return new TreeSet<String>();
 	}
 	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * The words of each signature are ranked when the dictionary is built,
+	 * so this returns a view of the first k ranked words
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+		
+		String[] ranked = null;
+		long key = packedKeys ? packSignature(signature) : NO_KEY;
+		
+		if( key != NO_KEY ) {
+			ranked = rankedPacked.get(key);
+		}else {
+			ranked = rankedDictionary.get(signature);
+		}
+		
+		if( ranked == null ) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(ranked).subList(0, Math.max(0, Math.min(k, ranked.length))));
+	}
+	
 }
@@ -0,0 +1,185 @@
+package com.emmanuelafoakwah.map_dictionary;
+
+import com.emmanuelafoakwah.shared.SignatureCodec;
+import java.util.function.BiConsumer;
+
+/**
+ * This class is an open addressing hash table mapping packed signature
+ * keys (see SignatureCodec) to a value for that signature (eg. its set of words)
+ *
+ * Keys are stored in a primitive long array and collisions are resolved
+ * by linear probing, so a lookup is a hash and a short scan of the array
+ * with no boxing and no allocation
+ * SignatureCodec.NO_KEY (0) is never a valid key and marks empty slots
+ *
+ * @param <V> is the type of the values stored under the keys
+ * @author Emmanuel Afoakwah
+ */
+public class SignatureTable<V> {
+
+	// Largest fraction of slots that may be in use before the table grows
+	private static final double LOAD_FACTOR = 0.6;
+
+	// Declaring table properties
+	private long[] keys;
+	private Object[] values;
+	private int size;
+	private int mask;
+	private int threshold;
+
+	/**
+	 * This is the constructor for an empty table
+	 * @param expectedSize is the number of keys the table should hold without resizing
+	 */
+	public SignatureTable(int expectedSize) {
+		int capacity = Integer.highestOneBit((int) Math.max(4, expectedSize / LOAD_FACTOR)) << 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * This function returns the value stored under the given key
+	 * @param key is the packed signature key
+	 * @return the value for the key, or null if the key is not present
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+
+		if( key == SignatureCodec.NO_KEY ) {
+			return null;
+		}
+
+		// Probe from the home slot until the key or an empty slot is found
+		for(int i = slot(key); ; i = (i + 1) & mask) {
+			long k = keys[i];
+
+			if( k == key ) {
+				return (V) values[i];
+			}else if( k == SignatureCodec.NO_KEY ) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * This function stores the value under the given key,
+	 * replacing any value already stored under it
+	 * @param key is the packed signature key
+	 * @param value is the value to store
+	 */
+	public void put(long key, V value) {
+
+		if( key == SignatureCodec.NO_KEY ) {
+			throw new IllegalArgumentException("NO_KEY cannot be stored in the table");
+		}
+
+		// Probe from the home slot until the key or an empty slot is found
+		int i = slot(key);
+
+		while( keys[i] != SignatureCodec.NO_KEY ) {
+			if( keys[i] == key ) {
+				values[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+
+		keys[i] = key;
+		values[i] = value;
+
+		// Grow the table once it is too full for short probe sequences
+		if( ++size > threshold ) {
+			rehash(keys.length << 1);
+		}
+	}
+
+	/**
+	 * This function stores every key and value of another table in this table,
+	 * replacing the values of keys already present
+	 * @param other is the table to copy the entries from
+	 */
+	@SuppressWarnings("unchecked")
+	public void putAll(SignatureTable<? extends V> other) {
+		for(int i = 0; i<other.keys.length; i++) {
+			if( other.keys[i] != SignatureCodec.NO_KEY ) {
+				put(other.keys[i], (V) other.values[i]);
+			}
+		}
+	}
+	
+	/**
+	 * This function returns the number of keys in the table
+	 * @return the number of keys stored
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * This function returns the number of slots in the table
+	 * @return the capacity of the table
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+	
+	/**
+	 * This function passes every signature and its value to the
+	 * given action (in no particular order)
+	 * @param action is the function to call for each entry
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<String, ? super V> action) {
+		for(int i = 0; i<keys.length; i++) {
+			if( keys[i] != SignatureCodec.NO_KEY ) {
+				action.accept(SignatureCodec.unpackSignature(keys[i]), (V) values[i]);
+			}
+		}
+	}
+
+	/**
+	 * This function returns the home slot of a key
+	 * The key is scrambled with a multiplicative hash first, as neighbouring
+	 * signatures only differ in their low bits
+	 * @param key is the packed signature key
+	 * @return the index of the first slot to probe
+	 */
+	private int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * This function allocates empty arrays of the given capacity
+	 * @param capacity is the number of slots (a power of two)
+	 */
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * This function moves every entry into a new pair of arrays
+	 * @param capacity is the new number of slots (a power of two)
+	 */
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+
+		allocate(capacity);
+
+		for(int i = 0; i<oldKeys.length; i++) {
+			if( oldKeys[i] != SignatureCodec.NO_KEY ) {
+				int j = slot(oldKeys[i]);
+
+				while( keys[j] != SignatureCodec.NO_KEY ) {
+					j = (j + 1) & mask;
+				}
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+}
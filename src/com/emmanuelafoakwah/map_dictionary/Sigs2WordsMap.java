@@ -1,11 +1,14 @@
 package com.emmanuelafoakwah.map_dictionary;
 
+import com.emmanuelafoakwah.metrics.MetricsRegistry;
 import com.emmanuelafoakwah.shared.Dictionary;
-import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidSignature;
+import com.emmanuelafoakwah.shared.QueryStream;
 import static com.emmanuelafoakwah.shared.Constants.DICTIONARY_PATH;
 
 /**
  * This command line program runs the Map Sigs2Words() function
+ * for the signatures given as arguments, read from standard input ("-")
+ * or read from a file ("-f path"), see QueryStream
  * @author Emmanuel Afoakwah
  */
 public class Sigs2WordsMap {
@@ -13,14 +16,9 @@ public class Sigs2WordsMap {
 	public static void main(String[] args) {
 
 		// Creating an instance of the dictionary
-		Dictionary md = new MapDictionary(DICTIONARY_PATH);
+		Dictionary md = MetricsRegistry.instrument("map", new MapDictionary(DICTIONARY_PATH));
 		
-		// Loop through the args array returning matching words with the given signature
-		for(int i = 0; i<args.length; i++) {
-			
-			if(isValidSignature(args[i])) {
-				System.out.println(args[i] + ": " + md.signatureToWords(args[i]));
-			}
-		}
+		// Answer the signatures given as arguments, standard input or files
+		new QueryStream(md).run(args);
 	}
 }
@@ -0,0 +1,77 @@
+package com.emmanuelafoakwah.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the Java Flight Recorder event for one phase of a dictionary load
+ * 
+ * The dictionaries emit an event for each phase of their load:
+ * - "read": reading and validating the lines of the dictionary file
+ * - "build": encoding the signature of each word and building the index
+ * - "rank": ranking the words of each signature by frequency
+ * so a recording taken with -XX:StartFlightRecording shows how long each
+ * (re)load took, and which phase, next to the GC and lookup events around it
+ * When no recording is running start and finish cost almost nothing
+ * 
+ * @author Emmanuel Afoakwah
+ */
+@Name("com.emmanuelafoakwah.t9.DictionaryLoad")
+@Label("Dictionary Load Phase")
+@Category({"T9", "Dictionary"})
+@Description("A phase of loading or rebuilding a dictionary")
+@StackTrace(false)
+public class DictionaryLoadEvent extends Event {
+	
+	// Phases of a load
+	public static final String READ = "read";
+	public static final String BUILD = "build";
+	public static final String RANK = "rank";
+	
+	@Label("Implementation")
+	Class<?> implementation;
+	
+	@Label("Phase")
+	String phase;
+	
+	@Label("Path")
+	String path;
+	
+	@Label("Words")
+	@Description("Number of words processed by the phase")
+	int words;
+	
+	/**
+	 * This function starts timing a phase of a load
+	 * @param dictionary is the dictionary being loaded
+	 * @param phase is the phase starting (READ, BUILD or RANK)
+	 * @param path is the String path to the dictionary file
+	 * @return the event to finish at the end of the phase
+	 */
+	public static DictionaryLoadEvent start(Object dictionary, String phase, String path) {
+		DictionaryLoadEvent event = new DictionaryLoadEvent();
+		event.implementation = dictionary.getClass();
+		event.phase = phase;
+		event.path = path;
+		event.begin();
+		return event;
+	}
+	
+	/**
+	 * This function ends the phase, committing the event if it is being recorded
+	 * @param words is the number of words processed by the phase
+	 */
+	public void finish(int words) {
+		end();
+		
+		if( shouldCommit() ) {
+			this.words = words;
+			commit();
+		}
+	}
+	
+}
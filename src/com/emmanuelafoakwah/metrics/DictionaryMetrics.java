@@ -0,0 +1,168 @@
+package com.emmanuelafoakwah.metrics;
+
+/**
+ * This class holds the metrics of one dictionary implementation:
+ * - a histogram of query latencies (nanoseconds)
+ * - a histogram of result sizes (number of words returned)
+ * - the duration, word counts and estimated size of the last load
+ * 
+ * Instances are created by the MetricsRegistry, one per implementation name
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class DictionaryMetrics implements DictionaryMetricsMBean {
+	
+	// Declaring the implementation name
+	private final String name;
+	
+	// Query metrics
+	private final Histogram queryNanos = new Histogram();
+	private final Histogram resultSizes = new Histogram();
+	
+	// Metrics of the last load
+	private volatile long loadNanos;
+	private volatile long wordsLoaded;
+	private volatile long wordsRejected;
+	private volatile long estimatedBytes;
+	
+	/**
+	 * This is the constructor for the metrics of an implementation
+	 * @param name is the name of the implementation eg.) "tree"
+	 */
+	public DictionaryMetrics(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * This function records one query
+	 * @param nanos is the time the query took in nanoseconds
+	 * @param resultSize is the number of words returned
+	 */
+	public void recordQuery(long nanos, int resultSize) {
+		queryNanos.record(nanos);
+		resultSizes.record(resultSize);
+	}
+	
+	/**
+	 * This function records a load of the dictionary
+	 * @param nanos is the time the load took in nanoseconds
+	 * @param loaded is the number of lines with a valid word (including repeated words)
+	 * @param rejected is the number of lines rejected (invalid word or frequency)
+	 * @param bytes is the estimated heap retained by the dictionary
+	 */
+	public void recordLoad(long nanos, long loaded, long rejected, long bytes) {
+		this.loadNanos = nanos;
+		this.wordsLoaded = loaded;
+		this.wordsRejected = rejected;
+		this.estimatedBytes = bytes;
+	}
+	
+	/**
+	 * This function returns the name of the implementation
+	 * @return the implementation name
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * This function returns the histogram of query latencies
+	 * @return the latency histogram in nanoseconds
+	 */
+	public Histogram getQueryHistogram() {
+		return queryNanos;
+	}
+	
+	/**
+	 * This function returns the histogram of result sizes
+	 * @return the result size histogram
+	 */
+	public Histogram getResultSizeHistogram() {
+		return resultSizes;
+	}
+
+	@Override
+	public long getQueryCount() {
+		return queryNanos.getCount();
+	}
+
+	@Override
+	public double getQueryMeanNanos() {
+		return queryNanos.getMean();
+	}
+
+	@Override
+	public long getQueryP50Nanos() {
+		return queryNanos.getValueAtPercentile(50);
+	}
+
+	@Override
+	public long getQueryP99Nanos() {
+		return queryNanos.getValueAtPercentile(99);
+	}
+
+	@Override
+	public long getQueryP999Nanos() {
+		return queryNanos.getValueAtPercentile(99.9);
+	}
+
+	@Override
+	public long getQueryMaxNanos() {
+		return queryNanos.getMax();
+	}
+
+	@Override
+	public double getResultSizeMean() {
+		return resultSizes.getMean();
+	}
+
+	@Override
+	public long getResultSizeP99() {
+		return resultSizes.getValueAtPercentile(99);
+	}
+
+	@Override
+	public long getResultSizeMax() {
+		return resultSizes.getMax();
+	}
+
+	@Override
+	public double getLoadMillis() {
+		return loadNanos / 1e6;
+	}
+
+	@Override
+	public long getWordsLoaded() {
+		return wordsLoaded;
+	}
+
+	@Override
+	public long getWordsRejected() {
+		return wordsRejected;
+	}
+
+	@Override
+	public long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+
+	@Override
+	public void resetQueries() {
+		queryNanos.reset();
+		resultSizes.reset();
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 * Summary of the metrics for logging
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s: %d queries (mean %.0f ns, p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns), "
+				+ "mean result %.1f words, load %.1f ms (%d words, %d rejected, ~%d bytes)",
+				name, getQueryCount(), getQueryMeanNanos(), getQueryP50Nanos(), getQueryP99Nanos(),
+				getQueryP999Nanos(), getQueryMaxNanos(), getResultSizeMean(), getLoadMillis(),
+				wordsLoaded, wordsRejected, estimatedBytes);
+	}
+	
+}
@@ -0,0 +1,42 @@
+package com.emmanuelafoakwah.metrics;
+
+/**
+ * This interface defines the attributes of a DictionaryMetrics
+ * published over JMX (eg. to JConsole or VisualVM)
+ * @author Emmanuel Afoakwah
+ *
+ */
+public interface DictionaryMetricsMBean {
+	
+	public long getQueryCount();
+	
+	public double getQueryMeanNanos();
+	
+	public long getQueryP50Nanos();
+	
+	public long getQueryP99Nanos();
+	
+	public long getQueryP999Nanos();
+	
+	public long getQueryMaxNanos();
+	
+	public double getResultSizeMean();
+	
+	public long getResultSizeP99();
+	
+	public long getResultSizeMax();
+	
+	public double getLoadMillis();
+	
+	public long getWordsLoaded();
+	
+	public long getWordsRejected();
+	
+	public long getEstimatedBytes();
+	
+	/**
+	 * This function clears the query and result size histograms
+	 */
+	public void resetQueries();
+	
+}
@@ -0,0 +1,46 @@
+package com.emmanuelafoakwah.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * This class is the Java Flight Recorder event for a slow dictionary query
+ * (emitted by TracedDictionary)
+ * 
+ * Only queries that take longer than the threshold are recorded, 1 ms by default
+ * The threshold is an ordinary JFR event setting, so it can be changed in a
+ * .jfc settings file:
+ * 		<event name="com.emmanuelafoakwah.t9.DictionaryQuery">
+ * 			<setting name="enabled">true</setting>
+ * 			<setting name="threshold">100 us</setting>
+ * 		</event>
+ * or with Recording.enable(DictionaryQueryEvent.class).withThreshold(...)
+ * Each event carries the stack trace of the query, so a latency spike in
+ * a recording leads straight to the caller that saw it
+ * 
+ * @author Emmanuel Afoakwah
+ */
+@Name("com.emmanuelafoakwah.t9.DictionaryQuery")
+@Label("Dictionary Query")
+@Category({"T9", "Dictionary"})
+@Description("A signatureToWords or topWords call that took longer than the threshold")
+@Threshold("1 ms")
+public class DictionaryQueryEvent extends Event {
+	
+	@Label("Implementation")
+	Class<?> implementation;
+	
+	@Label("Operation")
+	String operation;
+	
+	@Label("Signature Length")
+	int signatureLength;
+	
+	@Label("Result Count")
+	int resultCount;
+	
+}
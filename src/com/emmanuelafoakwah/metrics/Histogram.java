@@ -0,0 +1,147 @@
+package com.emmanuelafoakwah.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a thread-safe histogram of non-negative long values
+ * (eg. query latencies in nanoseconds or result sizes)
+ * 
+ * As in an HDR histogram the buckets are log-linear: values below 32 have a
+ * bucket each, above that every power of two range is split into 32 equal
+ * buckets, so any recorded value is reported within about 3% of its true value
+ * whether it is 50 nanoseconds or 5 seconds, using a fixed 1888 counters
+ * Recording a value is a few bit operations and an atomic increment
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class Histogram {
+	
+	// Number of bits of precision (sub-buckets per power of two = 2^SUB_BITS)
+	private static final int SUB_BITS = 5;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	
+	// Declaring histogram properties
+	private final AtomicLongArray counts = new AtomicLongArray(SUB_COUNT + (63 - SUB_BITS) * SUB_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+	
+	/**
+	 * This function records one value
+	 * @param value is the value to record (negative values are recorded as 0)
+	 */
+	public void record(long value) {
+		
+		long v = Math.max(0, value);
+		counts.incrementAndGet(bucketOf(v));
+		count.increment();
+		sum.add(v);
+		
+		// Raise the maximum if this value is larger
+		long current = max.get();
+		
+		while( v > current && !max.compareAndSet(current, v) ) {
+			current = max.get();
+		}
+	}
+	
+	/**
+	 * This function returns the bucket for a value
+	 * @param value is a non-negative value
+	 * @return the index of the bucket counting the value
+	 */
+	static int bucketOf(long value) {
+		
+		if( value < SUB_COUNT ) {
+			return (int) value;
+		}
+		
+		// The power of two range of the value selects the octave, the next bits the sub-bucket
+		int octave = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		int sub = (int) (value >>> octave) - SUB_COUNT;
+		return SUB_COUNT + octave * SUB_COUNT + sub;
+	}
+	
+	/**
+	 * This function returns the largest value counted by a bucket
+	 * @param bucket is the index of the bucket
+	 * @return the highest value the bucket counts
+	 */
+	static long highestValueOf(int bucket) {
+		
+		if( bucket < SUB_COUNT ) {
+			return bucket;
+		}
+		
+		int octave = (bucket - SUB_COUNT) / SUB_COUNT;
+		long sub = (bucket - SUB_COUNT) % SUB_COUNT + SUB_COUNT;
+		return ((sub + 1) << octave) - 1;
+	}
+	
+	/**
+	 * This function returns the value below which the given percentage of values fall
+	 * @param percentile is the percentage (0 to 100) eg.) 99.9
+	 * @return the value at the percentile (within the bucket precision), 0 if empty
+	 */
+	public long getValueAtPercentile(double percentile) {
+		
+		long total = count.sum();
+		
+		if( total == 0 ) {
+			return 0;
+		}
+		
+		long target = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+		long seen = 0;
+		
+		for(int i = 0; i<counts.length(); i++) {
+			seen += counts.get(i);
+			
+			if( seen >= target ) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+	
+	/**
+	 * This function returns the number of values recorded
+	 * @return the count of values
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+	
+	/**
+	 * This function returns the mean of the values recorded
+	 * @return the mean, 0 if empty
+	 */
+	public double getMean() {
+		long total = count.sum();
+		return (total == 0) ? 0 : (double) sum.sum() / total;
+	}
+	
+	/**
+	 * This function returns the largest value recorded
+	 * @return the maximum, 0 if empty
+	 */
+	public long getMax() {
+		return max.get();
+	}
+	
+	/**
+	 * This function clears the histogram
+	 * (values recorded while it is being cleared may be lost)
+	 */
+	public void reset() {
+		for(int i = 0; i<counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+	
+}
@@ -0,0 +1,71 @@
+package com.emmanuelafoakwah.metrics;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class details the Instrumented Dictionary, a wrapper that records
+ * the latency and result size of every query to the wrapped dictionary
+ * (see MetricsRegistry.instrument)
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class InstrumentedDictionary implements Dictionary {
+	
+	// Declaring the wrapped dictionary and its metrics
+	private final Dictionary dictionary;
+	private final DictionaryMetrics metrics;
+	
+	/**
+	 * This is the constructor for the instrumented dictionary
+	 * @param dictionary is the dictionary to measure
+	 * @param metrics are the metrics to record the queries in
+	 */
+	public InstrumentedDictionary(Dictionary dictionary, DictionaryMetrics metrics) {
+		this.dictionary = dictionary;
+		this.metrics = metrics;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signatureToWords(java.lang.String)
+	 * This function times the query to the wrapped dictionary
+	 */
+	@Override
+	public Set<String> signatureToWords(String signature) {
+		long start = System.nanoTime();
+		Set<String> out = dictionary.signatureToWords(signature);
+		metrics.recordQuery(System.nanoTime() - start, out.size());
+		return out;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * This function times the query to the wrapped dictionary
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+		long start = System.nanoTime();
+		List<String> out = dictionary.topWords(signature, k);
+		metrics.recordQuery(System.nanoTime() - start, out.size());
+		return out;
+	}
+	
+	/**
+	 * This function returns the wrapped dictionary
+	 * @return the dictionary being measured
+	 */
+	public Dictionary getDictionary() {
+		return dictionary;
+	}
+	
+	/**
+	 * This function returns the metrics of this dictionary
+	 * @return the metrics the queries are recorded in
+	 */
+	public DictionaryMetrics getMetrics() {
+		return metrics;
+	}
+	
+}
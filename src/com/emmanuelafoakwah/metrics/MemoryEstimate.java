@@ -0,0 +1,58 @@
+package com.emmanuelafoakwah.metrics;
+
+/**
+ * This class holds the helper functions for estimating the heap retained
+ * by a dictionary, assuming a 64 bit JVM with compressed references
+ * (12 byte object headers, 4 byte references, 8 byte alignment)
+ * and compact Latin-1 Strings
+ * 
+ * The estimates count the dictionary's own objects only and are meant for
+ * comparing implementations and sizes, not as an exact measurement
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public final class MemoryEstimate {
+	
+	// Size of a TreeMap (or the TreeMap inside a TreeSet) entry
+	public static final long TREE_ENTRY_BYTES = 40;
+	
+	// Size of an empty TreeSet (the set and its TreeMap)
+	public static final long TREE_SET_BYTES = 64;
+	
+	// Size of a HashMap entry and its table slot
+	public static final long HASH_ENTRY_BYTES = 40;
+	
+	/**
+	 * This class only holds static functions
+	 */
+	private MemoryEstimate() {
+	}
+	
+	/**
+	 * This function estimates the size of a String and its character array
+	 * @param s is the String
+	 * @return the estimated number of bytes
+	 */
+	public static long stringBytes(String s) {
+		return 24 + align(16 + s.length());
+	}
+	
+	/**
+	 * This function estimates the size of an array of references
+	 * @param length is the length of the array
+	 * @return the estimated number of bytes
+	 */
+	public static long referenceArrayBytes(long length) {
+		return align(16 + 4 * length);
+	}
+	
+	/**
+	 * This function rounds a size up to the 8 byte object alignment
+	 * @param bytes is the unaligned size
+	 * @return the aligned size
+	 */
+	public static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+	
+}
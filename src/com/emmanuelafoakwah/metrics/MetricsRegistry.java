@@ -0,0 +1,109 @@
+package com.emmanuelafoakwah.metrics;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * This class is the in-process registry of DictionaryMetrics, one per implementation
+ * 
+ * Metrics are off unless the JVM is started with -Dt9.metrics=true,
+ * the dictionaries check the ENABLED constant before measuring anything,
+ * so when metrics are off the checks are removed by the JIT compiler
+ * With -Dt9.metrics.jmx=true as well, each DictionaryMetrics is also registered
+ * as an MBean named "com.emmanuelafoakwah.t9:type=Dictionary,name=(implementation)"
+ * Independently of these settings the dictionaries emit Java Flight Recorder
+ * events (DictionaryLoadEvent, DictionaryQueryEvent) while a recording is running
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public final class MetricsRegistry {
+	
+	// Whether metrics are recorded
+	public static final boolean ENABLED = Boolean.getBoolean("t9.metrics");
+	
+	// Whether metrics are published over JMX
+	public static final boolean JMX_ENABLED = ENABLED && Boolean.getBoolean("t9.metrics.jmx");
+	
+	// The metrics of each implementation
+	private static final ConcurrentMap<String, DictionaryMetrics> METRICS = new ConcurrentHashMap<String, DictionaryMetrics>();
+	
+	/**
+	 * This class only holds static functions
+	 */
+	private MetricsRegistry() {
+	}
+	
+	/**
+	 * This function returns the metrics of an implementation, creating them
+	 * (and registering their MBean) the first time the name is used
+	 * @param name is the name of the implementation eg.) "tree"
+	 * @return the metrics of the implementation
+	 */
+	public static DictionaryMetrics get(String name) {
+		return METRICS.computeIfAbsent(name, n -> {
+			DictionaryMetrics metrics = new DictionaryMetrics(n);
+			
+			if( JMX_ENABLED ) {
+				register(metrics);
+			}
+			return metrics;
+		});
+	}
+	
+	/**
+	 * This function records a load in the metrics of an implementation
+	 * (the dictionaries call this only when metrics are enabled)
+	 * @param name is the name of the implementation
+	 * @param start is the System.nanoTime() at the start of the load
+	 * @param loaded is the number of lines with a valid word
+	 * @param rejected is the number of lines rejected
+	 * @param bytes is the estimated heap retained by the dictionary
+	 */
+	public static void recordLoad(String name, long start, long loaded, long rejected, long bytes) {
+		get(name).recordLoad(System.nanoTime() - start, loaded, rejected, bytes);
+	}
+	
+	/**
+	 * This function wraps a dictionary so that its slow queries are traced
+	 * in flight recordings and, if metrics are on, every query is measured
+	 * @param name is the name of the implementation
+	 * @param dictionary is the dictionary to measure
+	 * @return a TracedDictionary, wrapped in an InstrumentedDictionary if metrics are on
+	 */
+	public static Dictionary instrument(String name, Dictionary dictionary) {
+		Dictionary traced = new TracedDictionary(dictionary);
+		return ENABLED ? new InstrumentedDictionary(traced, get(name)) : traced;
+	}
+	
+	/**
+	 * This function returns the metrics of every implementation used so far
+	 * @return an unmodifiable view of the metrics
+	 */
+	public static Collection<DictionaryMetrics> getAll() {
+		return Collections.unmodifiableCollection(METRICS.values());
+	}
+	
+	/**
+	 * This function registers the MBean of the given metrics
+	 * If the MBean cannot be registered a message is printed
+	 * along with the stack trace
+	 * @param metrics are the metrics to register
+	 */
+	private static void register(DictionaryMetrics metrics) {
+		try {
+			ObjectName name = new ObjectName("com.emmanuelafoakwah.t9:type=Dictionary,name=" 
+					+ ObjectName.quote(metrics.getName()));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+		}catch(JMException e) {
+			System.out.println("Could not register metrics MBean ...");
+			e.printStackTrace();
+		}
+	}
+	
+}
@@ -0,0 +1,87 @@
+package com.emmanuelafoakwah.metrics;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class details the Traced Dictionary, a wrapper that emits a
+ * DictionaryQueryEvent for every query to the wrapped dictionary that
+ * takes longer than the event's threshold (see MetricsRegistry.instrument)
+ * 
+ * While no flight recording is running the events are disabled and the
+ * wrapper adds little more than a method call to each query
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class TracedDictionary implements Dictionary {
+	
+	// Declaring the wrapped dictionary
+	private final Dictionary dictionary;
+	
+	/**
+	 * This is the constructor for the traced dictionary
+	 * @param dictionary is the dictionary to trace
+	 */
+	public TracedDictionary(Dictionary dictionary) {
+		this.dictionary = dictionary;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signatureToWords(java.lang.String)
+	 * This function times the query to the wrapped dictionary
+	 */
+	@Override
+	public Set<String> signatureToWords(String signature) {
+		DictionaryQueryEvent event = new DictionaryQueryEvent();
+		event.begin();
+		
+		Set<String> out = dictionary.signatureToWords(signature);
+		commit(event, "signatureToWords", signature, out.size());
+		return out;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * This function times the query to the wrapped dictionary
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+		DictionaryQueryEvent event = new DictionaryQueryEvent();
+		event.begin();
+		
+		List<String> out = dictionary.topWords(signature, k);
+		commit(event, "topWords", signature, out.size());
+		return out;
+	}
+	
+	/**
+	 * This function ends the event of a query, committing it if the query
+	 * was slower than the threshold of a running recording
+	 * @param event is the event started before the query
+	 * @param operation is the name of the function called
+	 * @param signature is the signature queried
+	 * @param resultCount is the number of words returned
+	 */
+	private void commit(DictionaryQueryEvent event, String operation, String signature, int resultCount) {
+		event.end();
+		
+		if( event.shouldCommit() ) {
+			event.implementation = dictionary.getClass();
+			event.operation = operation;
+			event.signatureLength = signature.length();
+			event.resultCount = resultCount;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * This function returns the wrapped dictionary
+	 * @return the dictionary being traced
+	 */
+	public Dictionary getDictionary() {
+		return dictionary;
+	}
+	
+}
@@ -2,11 +2,19 @@ package com.emmanuelafoakwah.prototype;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeSet;
+import com.emmanuelafoakwah.shared.SignatureCodec;
 
 import static com.emmanuelafoakwah.shared.Constants.DICTIONARY_PATH;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseFrequency;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseWord;
 
 /**
  * This class contains the predictive text prototype comprising four functions:
@@ -21,44 +29,19 @@ public class PredictivePrototype {
 	
 	/**
 	 * This function converts a word to a signature
+	 * Each character is converted through the SignatureCodec lookup table,
+	 * letters a-z (either case) give their digit and anything else gives a space
 	 * @param word is the string to convert
 	 * @return a string representing the signature corresponding to the word
 	 */
 	public static String wordToSignature(String word) {
 		
-		// Creating the char array
-		String wordIn = word.toLowerCase();
-		char[] wordChars = wordIn.toCharArray();
+		// Write the signature straight into a char array of the same length
+		char[] signature = new char[word.length()];
+		SignatureCodec.encodeWord(word, signature, 0);
 		
-		// The string buffer to cumulatively store the signature
-		StringBuffer sBuffer = new StringBuffer("");
-		
-		// Loops through the char array and cumulatively adds the appropriate digit
-		for(char c : wordChars) {
-			
-			String sigInt = "";
-			
-			if( Character.isAlphabetic(c)) {
-				
-				switch(c) {
-					case 'a': case 'b': case 'c': sigInt = "2"; break;
-					case 'd': case 'e': case 'f': sigInt = "3"; break;
-					case 'g': case 'h': case 'i': sigInt = "4"; break;
-					case 'j': case 'k': case 'l': sigInt = "5"; break;
-					case 'm': case 'n': case 'o': sigInt = "6"; break;
-					case 'p': case 'q': case 'r': case 's': sigInt = "7"; break;
-					case 't': case 'u': case 'v': sigInt = "8"; break;
-					case 'w': case 'x': case 'y': case 'z': sigInt = "9"; break;
-					default: sigInt = " ";
-				}
-				sBuffer.append(sigInt);
-			}else {
-				// Add a space for non alphabetical
-				sBuffer.append(" ");
-			}
-		}
 		// return the complete signature as a string
-		return sBuffer.toString();
+		return new String(signature);
 	}
 	
 	/**
@@ -67,26 +50,77 @@ public class PredictivePrototype {
 	 * @return a set of words whose signature matches the input signature
 	 */
 	public static Set<String> signatureToWords(String signature){
+		return signatureToWords(signature, DICTIONARY_PATH);
+	}
+	
+	/**
+	 * This function produces a set of words corresponding to the given signature
+	 * from the given dictionary text file
+	 * Each line is read as the other dictionaries read it, a word optionally
+	 * followed by its frequency (see WordFrequencies)
+	 * The file is scanned without building a String for each line,
+	 * in parallel chunks (see SignatureScanner)
+	 * @param signature is the signature to cross-reference against the dictionary
+	 * @param path is the String path to the dictionary text file
+	 * @return a set of words whose signature matches the input signature
+	 */
+	public static Set<String> signatureToWords(String signature, String path){
 
-		File dictionary = new File(DICTIONARY_PATH); // Final Dictionary
+		// Try-catch attempting to scan the file, throws an error if it isn't present
+		try {
+			return new SignatureScanner(path).scan(signature);
+
+		}catch(NoSuchFileException e) {
+			// If the file is not there print a message and the stack trace
+			System.out.println("File not found ...");
+			e.printStackTrace();
+		}catch(IOException e) {
+			System.out.println("Could not read the dictionary ...");
+			e.printStackTrace();
+		}
+		return new TreeSet<String>();
+	}
+	
+	/**
+	 * This function produces the set of words corresponding to each of the
+	 * given signatures in a single scan of the dictionary text file
+	 * @param signatures are the signatures to cross-reference against the dictionary
+	 * @return a map from each signature to the set of words whose signature matches it
+	 */
+	public static Map<String, Set<String>> signaturesToWords(Collection<String> signatures){
+		return signaturesToWords(signatures, DICTIONARY_PATH);
+	}
+	
+	/**
+	 * This function produces the set of words corresponding to each of the
+	 * given signatures in a single scan of the given dictionary text file,
+	 * rather than scanning the file once per signature
+	 * @param signatures are the signatures to cross-reference against the dictionary
+	 * @param path is the String path to the dictionary text file
+	 * @return a map from each signature to the set of words whose signature matches it
+	 */
+	public static Map<String, Set<String>> signaturesToWords(Collection<String> signatures, String path){
 		
-		// The set of string words to return
-		Set<String> out = new TreeSet<String>();
+		// Every signature starts with an empty set of words
+		Map<String, Set<String>> out = new HashMap<String, Set<String>>();
+		
+		for(String signature : signatures) {
+			out.put(signature, new TreeSet<String>());
+		}
 		
 		// Try-catch attempting to read the file, throws an error if it isn't present
-		try { 
-			Scanner scan = new Scanner(dictionary);
+		try {
+			Scanner scan = new Scanner(new File(path));
 			
-			// Scan each word in the dictionary and check if it's signature matches
+			// Scan each word and add it to the set of its signature, if it was asked for
 			while(scan.hasNextLine()) {
 				
-				String dictWord = scan.nextLine().toLowerCase();
+				String line = scan.nextLine();
+				String dictWord = parseWord(line);
+				Set<String> words = out.get(wordToSignature(dictWord));
 				
-				// If the signature matches, add the word to the set
-				if( signature.equals(wordToSignature(dictWord)) 
-						&& (out.contains(dictWord)==false)
-						&& isValidWord(dictWord)) {
-					out.add(dictWord);
+				if( words != null && isValidWord(dictWord) && parseFrequency(line) >= 0 ) {
+					words.add(dictWord);
 				}
 			}
 			scan.close();
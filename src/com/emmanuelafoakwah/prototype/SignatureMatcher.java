@@ -0,0 +1,182 @@
+package com.emmanuelafoakwah.prototype;
+
+import com.emmanuelafoakwah.shared.SignatureCodec;
+import java.nio.ByteBuffer;
+
+/**
+ * This class compares dictionary words held as ASCII bytes against one
+ * signature eight bytes at a time, using the bit tricks known as SWAR
+ * (SIMD within a register) on plain long values
+ *
+ * Each digit of a signature accepts a contiguous range of letters
+ * (eg. '7' accepts 'p' to 's'), so the signature is turned into two longs per
+ * eight digits holding the lowest and highest accepted letter of each position
+ * Eight bytes of a word are read as one long (lowest address in the lowest byte),
+ * converted to lower case with a single OR and range checked against both
+ * longs with one subtraction each: setting the top bit of every byte first
+ * means no byte borrows from its neighbour, so the top bit of each byte of
+ * the results says whether that letter is in range
+ * The same approach finds the line endings in eight bytes at once (lineEnds)
+ *
+ * Only the digits 2-9 accept letters, see SignatureScanner for the scalar
+ * path used for any other signature
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class SignatureMatcher {
+
+	// The top bit and the low seven bits of every byte of a long
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+	// Every byte of a long set to 0x20 (the ASCII lower case bit), '\n' and '\r'
+	private static final long LOWER_CASE = 0x2020202020202020L;
+	private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+	private static final long RETURNS = 0x0D0D0D0D0D0D0D0DL;
+
+	// Lowest and highest lower case letter of each digit ('2' to '9')
+	private static final byte[] FIRST_LETTER = new byte[10];
+	private static final byte[] LAST_LETTER = new byte[10];
+
+	static {
+		for(char c = 'z'; c>='a'; c--) {
+			FIRST_LETTER[SignatureCodec.digitOf(c) - '0'] = (byte) c;
+		}
+		for(char c = 'a'; c<='z'; c++) {
+			LAST_LETTER[SignatureCodec.digitOf(c) - '0'] = (byte) c;
+		}
+	}
+
+	// Declaring matcher properties (one lo, hi and mask per eight digits)
+	private final int length;
+	private final long[] lo;
+	private final long[] hi;
+	private final long[] mask;
+
+	/**
+	 * This is the constructor for a matcher of the given signature
+	 * @param signature is the signature to match (digits 2-9 only, see isSupported)
+	 */
+	public SignatureMatcher(String signature) {
+
+		if( !isSupported(signature) ) {
+			throw new IllegalArgumentException("Signature must only hold the digits 2-9");
+		}
+
+		length = signature.length();
+		int groups = (length + 7) >>> 3;
+		lo = new long[groups];
+		hi = new long[groups];
+		mask = new long[groups];
+
+		// Byte i of group g holds the letter range of digit 8g + i
+		for(int i = 0; i<length; i++) {
+			int digit = signature.charAt(i) - '0';
+			int shift = (i & 7) << 3;
+
+			lo[i >>> 3] |= (long) FIRST_LETTER[digit] << shift;
+			hi[i >>> 3] |= (long) LAST_LETTER[digit] << shift;
+			mask[i >>> 3] |= 0x80L << shift;
+		}
+	}
+
+	/**
+	 * This function checks whether a signature can be matched by this class
+	 * @param signature is the signature to check
+	 * @return a boolean indicating whether the signature is non-empty and only holds the digits 2-9
+	 */
+	public static boolean isSupported(String signature) {
+
+		if( signature.isEmpty() ) {
+			return false;
+		}
+		for(int i = 0; i<signature.length(); i++) {
+			if( signature.charAt(i) < '2' || signature.charAt(i) > '9' ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This function checks whether the ASCII letters at the given index
+	 * match the signature (the caller checks the length of the line)
+	 * The buffer must use little endian byte order
+	 * @param buffer is the buffer holding the word
+	 * @param from is the index of the first byte of the word
+	 * @param limit is the index after the last readable byte of the buffer
+	 * @return a boolean indicating whether each of the first length bytes is a letter of its digit
+	 */
+	public boolean matches(ByteBuffer buffer, int from, int limit) {
+
+		for(int g = 0; g<lo.length; g++) {
+
+			int at = from + (g << 3);
+			long word = (at + 8 <= limit) ? buffer.getLong(at) : readTail(buffer, at, limit);
+
+			// Bytes after the word may belong to the next line, they are masked out
+			// (a borrow from such a byte only reaches the bytes above it)
+			word |= LOWER_CASE;
+			long inRange = ((word | HIGH_BITS) - lo[g]) & ((hi[g] | HIGH_BITS) - word);
+
+			if( (inRange & mask[g]) != mask[g] ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This function returns the length of the signature
+	 * @return the number of digits matched
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * This function marks the line endings ('\n' and '\r') among eight bytes
+	 * @param word holds eight bytes, the lowest address in the lowest byte
+	 * @return a long with the top bit of each byte set where the byte is a line ending
+	 */
+	public static long lineEnds(long word) {
+		return zeroBytes(word ^ NEWLINES) | zeroBytes(word ^ RETURNS);
+	}
+
+	/**
+	 * This function marks the bytes outside of ASCII among eight bytes
+	 * @param word holds eight bytes
+	 * @return a long with the top bit of each byte set where the byte is 0x80 or above
+	 */
+	public static long nonAscii(long word) {
+		return word & HIGH_BITS;
+	}
+
+	/**
+	 * This function marks the zero bytes of a long exactly
+	 * (the common (x - 0x01..) & ~x trick also marks some bytes above a zero byte)
+	 * @param word holds eight bytes
+	 * @return a long with the top bit of each byte set where the byte is zero
+	 */
+	private static long zeroBytes(long word) {
+		return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+	}
+
+	/**
+	 * This function reads fewer than eight bytes at the end of a buffer into a long
+	 * @param buffer is the buffer to read
+	 * @param from is the index of the first byte
+	 * @param limit is the index after the last readable byte
+	 * @return the bytes in the low end of a long, padded with zero bytes
+	 */
+	private static long readTail(ByteBuffer buffer, int from, int limit) {
+
+		long out = 0;
+
+		for(int i = Math.min(limit, from + 8) - 1; i>=from; i--) {
+			out = (out << 8) | (buffer.get(i) & 0xFF);
+		}
+		return out;
+	}
+
+}
@@ -0,0 +1,464 @@
+package com.emmanuelafoakwah.prototype;
+
+import com.emmanuelafoakwah.shared.SignatureCodec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidWord;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.wordToSignature;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseFrequency;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseWord;
+
+/**
+ * This class scans a dictionary text file for the words matching a signature
+ * without building an index, for one-off lookups in dictionaries that are
+ * too large to be worth loading (see PredictivePrototype.signatureToWords)
+ *
+ * The file is split into chunks at line boundaries and the chunks are
+ * memory mapped and scanned in parallel on the common ForkJoinPool
+ * Signatures of the digits 2-9 are compared eight bytes at a time
+ * (see SignatureMatcher), any other signature is compared byte by byte,
+ * looking the digit of each letter up in a table
+ * Either way no String is built for a line unless it matches
+ * Lines holding bytes outside of ASCII (eg. accented letters in UTF-8) are decoded,
+ * as are the lines that start with whitespace or whose first letters match and are
+ * followed by whitespace (eg. a frequency), and checked with parseWord, parseFrequency,
+ * wordToSignature and isValidWord, so the results are the same as scanning the file
+ * line by line with a Scanner and reading each line as the other dictionaries do
+ * The file must use an ASCII compatible encoding (eg. UTF-8 or ISO-8859-1)
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class SignatureScanner {
+
+	// Smallest number of bytes scanned by one task
+	private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+	// Largest number of bytes mapped at once (a mapping is limited to 2GB)
+	private static final int MAX_CHUNK_SIZE = 1 << 30;
+
+	// Whether signatures are matched eight bytes at a time (-Dt9.scan.scalar=true turns it off)
+	private static final boolean SWAR_ENABLED = !Boolean.getBoolean("t9.scan.scalar");
+
+	// Line endings outside of ASCII recognised by Scanner.nextLine
+	private static final Pattern UNICODE_LINE_ENDS = Pattern.compile("[\u0085\u2028\u2029]");
+
+	// Signature digit of each ASCII letter (either case), 0 for any other byte
+	private static final byte[] DIGITS = new byte[128];
+
+	static {
+		for(char c = 'a'; c<='z'; c++) {
+			DIGITS[c] = DIGITS[Character.toUpperCase(c)] = (byte) SignatureCodec.digitOf(c);
+		}
+	}
+
+	// Declaring scanner properties
+	private final Path path;
+	private final Charset charset;
+
+	/**
+	 * This is the constructor for a scanner of the given dictionary text file
+	 * read in the platform's default encoding (as Scanner)
+	 * @param path is the String path to the dictionary text file
+	 */
+	public SignatureScanner(String path) {
+		this(path, Charset.defaultCharset());
+	}
+
+	/**
+	 * This is the constructor for a scanner of the given dictionary text file
+	 * @param path is the String path to the dictionary text file
+	 * @param charset is the (ASCII compatible) encoding of the file
+	 */
+	public SignatureScanner(String path, Charset charset) {
+		this.path = Paths.get(path);
+		this.charset = charset;
+	}
+
+	/**
+	 * This function returns the words of the file whose signature matches the
+	 * given signature, converted to lower case (as PredictivePrototype.signatureToWords)
+	 * @param signature is the signature to cross-reference against the dictionary
+	 * @return a set of words whose signature matches the input signature
+	 * @throws IOException if the file cannot be read
+	 */
+	public Set<String> scan(String signature) throws IOException {
+
+		// The signature as bytes, a character other than 2-9 never matches an ASCII letter
+		byte[] digits = new byte[signature.length()];
+
+		for(int i = 0; i<digits.length; i++) {
+			char c = signature.charAt(i);
+			digits[i] = (c >= '2' && c <= '9') ? (byte) c : -1;
+		}
+
+		// Signatures of the digits 2-9 are matched eight bytes at a time
+		SignatureMatcher matcher = (SWAR_ENABLED && SignatureMatcher.isSupported(signature)) 
+				? new SignatureMatcher(signature) : null;
+
+		try( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ) {
+
+			long[] bounds = chunkBounds(channel);
+
+			// Scan the chunks in parallel, then merge their matches
+			List<List<String>> matches;
+
+			try {
+				matches = IntStream.range(0, bounds.length - 1).parallel()
+						.mapToObj(c -> scanChunk(channel, bounds[c], bounds[c + 1], signature, digits, matcher))
+						.collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+
+			}catch(UncheckedIOException e) {
+				throw e.getCause();
+			}
+
+			Set<String> out = new TreeSet<String>();
+
+			for(List<String> chunk : matches) {
+				out.addAll(chunk);
+			}
+			return out;
+		}
+	}
+
+	/**
+	 * This function splits the file into chunks that start at the start of a line
+	 * There are a few chunks per thread of the common ForkJoinPool, so that
+	 * the threads stay busy when some chunks are slower than others
+	 * @param channel is the channel of the file
+	 * @return the start of each chunk followed by the size of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long[] chunkBounds(FileChannel channel) throws IOException {
+
+		long size = channel.size();
+		long chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L, size / MIN_CHUNK_SIZE));
+		chunks = Math.max(chunks, (size + MAX_CHUNK_SIZE / 2 - 1) / (MAX_CHUNK_SIZE / 2));
+
+		long[] out = new long[(int) chunks + 1];
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+		// Move each nominal boundary forward to the start of the next line
+		for(int c = 1; c<chunks; c++) {
+
+			long position = Math.max(out[c - 1], size * c / chunks);
+			out[c] = size;
+
+			while( position < size ) {
+				buffer.clear();
+				int read = channel.read(buffer, position);
+
+				if( read <= 0 ) {
+					break;
+				}
+
+				int newline = indexOfLineEnd(buffer.array(), 0, read);
+
+				if( newline >= 0 ) {
+					out[c] = position + newline + 1;
+
+					// Keep the '\n' of a "\r\n" line ending in the same chunk
+					if( buffer.get(newline) == '\r' && out[c] < size && readByte(channel, out[c]) == '\n' ) {
+						out[c]++;
+					}
+					break;
+				}
+				position += read;
+			}
+		}
+		out[(int) chunks] = size;
+		return out;
+	}
+
+	/**
+	 * This function scans one chunk of the file for matching words
+	 * @param channel is the channel of the file
+	 * @param start is the position of the first byte of the chunk (the start of a line)
+	 * @param end is the position after the last byte of the chunk
+	 * @param signature is the signature to match
+	 * @param digits holds the characters of the signature as bytes
+	 * @param matcher is the matcher of the signature, or null to use the scalar loop
+	 * @return the matching words in the chunk
+	 */
+	private List<String> scanChunk(FileChannel channel, long start, long end, String signature, byte[] digits, 
+			SignatureMatcher matcher) {
+
+		List<String> out = new ArrayList<String>();
+
+		if( end <= start ) {
+			return out;
+		}
+
+		MappedByteBuffer buffer;
+
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if( matcher != null ) {
+			scanWords(buffer.order(ByteOrder.LITTLE_ENDIAN), signature, matcher, out);
+		}else {
+			scanScalar(buffer, signature, digits, out);
+		}
+		return out;
+	}
+
+	/**
+	 * This function scans a chunk eight bytes at a time (see SignatureMatcher)
+	 * The line endings of each long are found together, so most lines are
+	 * passed over on their length alone, and only the lines as long as the
+	 * signature are compared with it
+	 * A line holding a byte outside of ASCII is checked by decoding it instead
+	 * @param buffer holds the chunk, in little endian byte order
+	 * @param signature is the signature to match
+	 * @param matcher is the matcher of the signature
+	 * @param out is the list to add the matching words to
+	 */
+	private void scanWords(ByteBuffer buffer, String signature, SignatureMatcher matcher, List<String> out) {
+
+		int limit = buffer.limit();
+		int lineStart = 0;
+		int i = 0;
+		boolean decode = false;
+
+		while( i < limit ) {
+
+			long ends;
+			long nonAscii;
+			int width;
+
+			if( i + 8 <= limit ) {
+				long word = buffer.getLong(i);
+				ends = SignatureMatcher.lineEnds(word);
+				nonAscii = SignatureMatcher.nonAscii(word);
+				width = 8;
+			}else {
+				// The last few bytes of the chunk are checked one at a time
+				byte b = buffer.get(i);
+				ends = (b == '\n' || b == '\r') ? 0x80L : 0;
+				nonAscii = (b < 0) ? 0x80L : 0;
+				width = 1;
+			}
+
+			while( ends != 0 ) {
+				
+				// The bytes below the line ending belong to the line in progress
+				long before = (ends & -ends) - 1;
+				int end = i + (Long.numberOfTrailingZeros(ends) >>> 3);
+
+				checkLine(buffer, lineStart, end, signature, matcher, decode || (nonAscii & before) != 0, out);
+				lineStart = end + 1;
+				nonAscii &= ~before;
+				ends &= ends - 1;
+				decode = false;
+			}
+			
+			// The bytes after the last line ending start the next line
+			decode |= nonAscii != 0;
+			i += width;
+		}
+
+		// The last line may not have a line ending
+		if( lineStart < limit ) {
+			checkLine(buffer, lineStart, limit, signature, matcher, decode, out);
+		}
+	}
+
+	/**
+	 * This function checks one line found by scanWords
+	 * A line of ASCII letters as long as the signature is compared directly,
+	 * a line that may hold whitespace around the word is decoded and parsed
+	 * @param buffer holds the chunk, in little endian byte order
+	 * @param from is the index of the first byte of the line
+	 * @param to is the index of the line ending (or the end of the chunk)
+	 * @param signature is the signature to match
+	 * @param matcher is the matcher of the signature
+	 * @param decode is true if the line may hold bytes outside of ASCII
+	 * @param out is the list to add a matching word to
+	 */
+	private void checkLine(ByteBuffer buffer, int from, int to, String signature, SignatureMatcher matcher, 
+			boolean decode, List<String> out) {
+
+		int length = matcher.length();
+
+		if( decode || (to > from && buffer.get(from) <= ' ') ) {
+			checkDecoded(buffer, from, to - from, signature, out);
+		}else if( to - from == length ) {
+			if( matcher.matches(buffer, from, buffer.limit()) ) {
+				out.add(lowerCase(buffer, from, length));
+			}
+		}else if( to - from > length && buffer.get(from + length) <= ' ' && matcher.matches(buffer, from, buffer.limit()) ) {
+			// The word may be followed by its frequency
+			checkDecoded(buffer, from, to - from, signature, out);
+		}
+	}
+
+	/**
+	 * This function scans a chunk one byte at a time, for the signatures
+	 * SignatureMatcher does not support (eg. an empty signature)
+	 * @param buffer holds the chunk
+	 * @param signature is the signature to match
+	 * @param digits holds the characters of the signature as bytes
+	 * @param out is the list to add the matching words to
+	 */
+	private void scanScalar(ByteBuffer buffer, String signature, byte[] digits, List<String> out) {
+
+		int limit = buffer.limit();
+		int length = digits.length;
+		int i = 0;
+
+		while( i < limit ) {
+
+			int lineStart = i;
+			int matched = 0;
+			boolean ascii = true;
+
+			// Compare the line with the signature until a byte does not match
+			while( matched < length && i < limit ) {
+				byte b = buffer.get(i);
+
+				if( b < 0 || DIGITS[b] != digits[matched] ) {
+					break;
+				}
+				matched++;
+				i++;
+			}
+
+			// Skip to the end of the line, noting any byte outside of ASCII
+			// (one comparison passes over every byte but control characters and non-ASCII bytes)
+			while( i < limit ) {
+				byte b = buffer.get(i);
+
+				if( b <= '\r' ) {
+					if( b == '\n' || b == '\r' ) {
+						break;
+					}
+					if( b < 0 ) {
+						ascii = false;
+					}
+				}
+				i++;
+			}
+
+			int lineLength = i - lineStart;
+
+			if( ascii && !(lineLength > 0 && buffer.get(lineStart) <= ' ') ) {
+				// Every byte matched a digit of the signature, so the line is a valid word
+				if( matched == length && lineLength == length ) {
+					out.add(lowerCase(buffer, lineStart, length));
+				}else if( matched == length && lineLength > length && buffer.get(lineStart + length) <= ' ' ) {
+					// The word may be followed by its frequency
+					checkDecoded(buffer, lineStart, lineLength, signature, out);
+				}
+			}else {
+				checkDecoded(buffer, lineStart, lineLength, signature, out);
+			}
+
+			// Step over the line ending ("\r\n" is a single line ending)
+			if( i + 1 < limit && buffer.get(i) == '\r' && buffer.get(i + 1) == '\n' ) {
+				i++;
+			}
+			i++;
+		}
+	}
+
+	/**
+	 * This function checks a line holding bytes outside of ASCII or whitespace
+	 * by decoding it and parsing the word and frequency as the dictionaries do
+	 * @param buffer holds the chunk
+	 * @param from is the index of the first byte of the line
+	 * @param length is the number of bytes in the line
+	 * @param signature is the signature to match
+	 * @param out is the list to add the matching words to
+	 */
+	private void checkDecoded(ByteBuffer buffer, int from, int length, String signature, List<String> out) {
+
+		// Scanner also ends lines at the Unicode line and paragraph separators
+		for(String line : UNICODE_LINE_ENDS.split(decode(buffer, from, length), -1)) {
+			String word = parseWord(line);
+
+			if( signature.equals(wordToSignature(word)) && isValidWord(word) && parseFrequency(line) >= 0 ) {
+				out.add(word);
+			}
+		}
+	}
+
+	/**
+	 * This function builds the lower case String of an ASCII word
+	 * @param buffer is the buffer holding the word
+	 * @param from is the index of the first byte of the word
+	 * @param length is the number of bytes (letters) in the word
+	 * @return the word in lower case
+	 */
+	private static String lowerCase(ByteBuffer buffer, int from, int length) {
+
+		char[] out = new char[length];
+
+		for(int i = 0; i<length; i++) {
+			out[i] = (char) (buffer.get(from + i) | 0x20);
+		}
+		return new String(out);
+	}
+
+	/**
+	 * This function decodes a line holding bytes outside of ASCII
+	 * @param buffer is the buffer holding the line
+	 * @param from is the index of the first byte of the line
+	 * @param length is the number of bytes in the line
+	 * @return the decoded line
+	 */
+	private String decode(ByteBuffer buffer, int from, int length) {
+
+		byte[] bytes = new byte[length];
+
+		for(int i = 0; i<length; i++) {
+			bytes[i] = buffer.get(from + i);
+		}
+		return new String(bytes, charset);
+	}
+
+	/**
+	 * This function reads a single byte of the file
+	 * @param channel is the channel of the file
+	 * @param position is the position of the byte
+	 * @return the byte, or -1 if the position is past the end of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private static int readByte(FileChannel channel, long position) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1);
+		return (channel.read(buffer, position) == 1) ? buffer.get(0) : -1;
+	}
+
+	/**
+	 * This function returns the index of the first line ending ('\n' or '\r')
+	 * @param bytes is the array to search
+	 * @param from is the first index to search
+	 * @param to is the index after the last to search
+	 * @return the index of the line ending, or -1 if there is none
+	 */
+	private static int indexOfLineEnd(byte[] bytes, int from, int to) {
+		for(int i = from; i<to; i++) {
+			if( bytes[i] == '\n' || bytes[i] == '\r' ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -1,20 +1,41 @@
 package com.emmanuelafoakwah.prototype;
 
+import com.emmanuelafoakwah.shared.QueryStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * This command line program runs the prototype Sigs2Words() function
+ * for the signatures given as arguments, read from standard input ("-")
+ * or read from a file ("-f path"), see QueryStream
+ * The prototype scans the dictionary text file once per batch of signatures
  * @author Emmanuel Afoakwah
  */
 public class Sigs2WordsProto {
+	
+	// Number of signatures answered by each scan of the dictionary file
+	private static final int BATCH_SIZE = 100000;
 
 	public static void main(String[] args) {
 		
-		// Loop through the args array returning matching words with the given signature
-		for(int i = 0; i<args.length; i++) {
+		QueryStream queries = new QueryStream(signatures -> {
 			
-			if( PredictivePrototype.isValidSignature(args[i])) {
-				System.out.println(args[i] + ": " + PredictivePrototype.signatureToWords(args[i]));
+			// Scan the file once for the whole batch
+			Map<String, Set<String>> words = PredictivePrototype.signaturesToWords(signatures);
+			List<Set<String>> out = new ArrayList<Set<String>>(signatures.size());
+			
+			for(String signature : signatures) {
+				out.add(words.get(signature));
 			}
-		}
+			return out;
+		}, BATCH_SIZE, new FileOutputStream(FileDescriptor.out));
+		
+		// Answer the signatures given as arguments, standard input or files
+		queries.run(args);
 	}
 	
 }
@@ -0,0 +1,428 @@
+package com.emmanuelafoakwah.server;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import com.emmanuelafoakwah.tree_dictionary.TreeDictionary;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * This class is a query server for a Dictionary, listening on the loopback
+ * interface only, so any number of local front-ends can share one loaded dictionary
+ *
+ * The protocol is line based, each request is one line and gets one line in reply:
+ * - "WORDS signature" replies with the words for the signature (signatureToWords)
+ * - "PREFIX signature" replies with the whole words whose signature starts
+ * 		with the signature (see TreeDictionary.completions)
+ * - "TOP signature k" replies with the k highest ranked words (topWords)
+ * - "QUIT" closes the connection
+ * A reply is "OK" followed by the words separated by spaces eg.) "OK gone good home",
+ * or "ERR" followed by a message, blank lines are ignored
+ *
+ * Requests may be pipelined: a client can send any number of requests without
+ * waiting, the replies come back in the same order
+ * The replies are collected in a buffer that is only written to the socket
+ * once every request received so far has been answered, so a burst of
+ * requests is answered with a single write
+ *
+ * Each connection is served by its own thread, a virtual thread when the
+ * JDK supports them (JDK 21 or later), so tens of thousands of mostly idle
+ * sessions only cost their small buffers
+ * On older JDKs a platform thread with a small stack is used instead
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class DictionaryServer implements Closeable {
+
+	// Default port of the server
+	public static final int DEFAULT_PORT = 7909;
+
+	// Size of the request and reply buffers of each connection in bytes
+	private static final int BUFFER_SIZE = 4096;
+
+	// Number of connections the operating system may queue before they are accepted
+	private static final int BACKLOG = 1024;
+
+	// Stack size of the platform threads used when there are no virtual threads
+	private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+	// Declaring server properties
+	private final Dictionary dictionary;
+	private final Function<String, Set<String>> prefixLookup;
+	private final ServerSocket serverSocket;
+	private final ExecutorService executor;
+	private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+	private final LongAdder requestCount = new LongAdder();
+	private volatile boolean closed;
+
+	/**
+	 * This is the constructor for a server of the given dictionary
+	 * Prefix lookups are only answered if the dictionary is a Tree Dictionary
+	 * @param dictionary is the dictionary to serve
+	 * @param port is the port to listen on (0 for any free port)
+	 * @throws IOException if the port cannot be bound
+	 */
+	public DictionaryServer(Dictionary dictionary, int port) throws IOException {
+		this(dictionary, (dictionary instanceof TreeDictionary) ? ((TreeDictionary) dictionary)::completions : null, port);
+	}
+
+	/**
+	 * This is the constructor for a server of the given dictionary
+	 * and prefix lookup (eg. the completions of the Tree Dictionary behind
+	 * an instrumented or caching dictionary)
+	 * @param dictionary is the dictionary to serve
+	 * @param prefixLookup returns the whole words for a signature prefix, or null if unsupported
+	 * @param port is the port to listen on (0 for any free port)
+	 * @throws IOException if the port cannot be bound
+	 */
+	public DictionaryServer(Dictionary dictionary, Function<String, Set<String>> prefixLookup, int port) throws IOException {
+		this.dictionary = dictionary;
+		this.prefixLookup = prefixLookup;
+		this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+		this.executor = newConnectionExecutor();
+	}
+
+	/**
+	 * This function starts accepting connections on a background thread
+	 * The thread is not a daemon, so the server keeps the JVM running until closed
+	 */
+	public void start() {
+		new Thread(this::acceptConnections, "dictionary-server").start();
+	}
+
+	/**
+	 * This function accepts connections until the server is closed,
+	 * handing each connection to a thread of its own
+	 */
+	private void acceptConnections() {
+
+		while( !closed ) {
+
+			Socket socket = null;
+
+			try {
+				socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				connections.add(socket);
+
+				Socket client = socket;
+				executor.execute(() -> serve(client));
+
+			}catch(RejectedExecutionException e) {
+				// The server was closed while the connection was accepted
+				closeQuietly(socket);
+			}catch(IOException e) {
+				if( !closed ) {
+					System.out.println("Could not accept connection ...");
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * This function answers the requests of one connection until the
+	 * client sends QUIT or closes the connection
+	 * @param socket is the connection to serve
+	 */
+	private void serve(Socket socket) {
+
+		try {
+			InputStream in = socket.getInputStream();
+			OutputStream out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+
+			byte[] request = new byte[BUFFER_SIZE];
+			int start = 0;
+			int end = 0;
+
+			while( true ) {
+
+				// Answer the next complete request in the buffer
+				int newline = indexOf(request, start, end, (byte) '\n');
+
+				if( newline >= 0 ) {
+					String line = new String(request, start, newline - start, StandardCharsets.ISO_8859_1).trim();
+					start = newline + 1;
+
+					if( !answer(line, out) ) {
+						break;
+					}
+					continue;
+				}
+
+				// Send the replies once the client has nothing more in flight
+				if( in.available() == 0 ) {
+					out.flush();
+				}
+
+				// Move the partial request to the front of the buffer and read more
+				System.arraycopy(request, start, request, 0, end - start);
+				end -= start;
+				start = 0;
+
+				if( end == request.length ) {
+					writeAscii(out, "ERR request too long\n");
+					break;
+				}
+
+				int read = in.read(request, end, request.length - end);
+
+				if( read < 0 ) {
+					break;
+				}
+				end += read;
+			}
+			out.flush();
+
+		}catch(IOException e) {
+			// The client closed or reset the connection, there is no one to reply to
+		}finally {
+			connections.remove(socket);
+			closeQuietly(socket);
+		}
+	}
+
+	/**
+	 * This function writes the reply to one request
+	 * @param line is the request, without its line ending
+	 * @param out is the stream to write the reply to
+	 * @return false if the connection should be closed (QUIT), otherwise true
+	 * @throws IOException if the reply cannot be written
+	 */
+	private boolean answer(String line, OutputStream out) throws IOException {
+
+		if( line.isEmpty() ) {
+			return true;
+		}
+		requestCount.increment();
+
+		String[] parts = line.split(" ");
+		String command = parts[0].toUpperCase();
+
+		if( command.equals("QUIT") ) {
+			return false;
+		}
+
+		if( parts.length < 2 || !isSignature(parts[1]) ) {
+			writeAscii(out, "ERR expected a signature of digits\n");
+			return true;
+		}
+
+		switch( command ) {
+			case "WORDS":
+				writeWords(out, dictionary.signatureToWords(parts[1]));
+				break;
+
+			case "PREFIX":
+				if( prefixLookup == null ) {
+					writeAscii(out, "ERR prefix lookups are not supported by this dictionary\n");
+				}else {
+					writeWords(out, prefixLookup.apply(parts[1]));
+				}
+				break;
+
+			case "TOP":
+				int k = (parts.length == 3) ? parseCount(parts[2]) : -1;
+
+				if( k < 0 ) {
+					writeAscii(out, "ERR expected TOP signature k\n");
+				}else {
+					writeWords(out, dictionary.topWords(parts[1], k));
+				}
+				break;
+
+			default:
+				writeAscii(out, "ERR unknown command " + parts[0] + "\n");
+		}
+		return true;
+	}
+
+	/**
+	 * This function writes a successful reply holding the given words
+	 * @param out is the stream to write the reply to
+	 * @param words are the words of the reply
+	 * @throws IOException if the reply cannot be written
+	 */
+	private static void writeWords(OutputStream out, Collection<String> words) throws IOException {
+
+		out.write('O');
+		out.write('K');
+
+		for(String word : words) {
+			out.write(' ');
+
+			// Words outside of ASCII are encoded as UTF-8
+			if( isAscii(word) ) {
+				writeAscii(out, word);
+			}else {
+				out.write(word.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		out.write('\n');
+	}
+
+	/**
+	 * This function writes an ASCII String without creating a byte array
+	 * @param out is the stream to write to
+	 * @param text is the String to write (only ASCII characters)
+	 * @throws IOException if the text cannot be written
+	 */
+	private static void writeAscii(OutputStream out, String text) throws IOException {
+		for(int i = 0; i<text.length(); i++) {
+			out.write(text.charAt(i));
+		}
+	}
+
+	/**
+	 * This function checks whether a String only holds ASCII characters
+	 * @param text is the String to check
+	 * @return a boolean indicating whether every character is below 128
+	 */
+	private static boolean isAscii(String text) {
+		for(int i = 0; i<text.length(); i++) {
+			if( text.charAt(i) >= 128 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This function checks whether a request argument is a signature
+	 * @param signature is the argument to check
+	 * @return a boolean indicating whether it is a non-empty string of digits
+	 */
+	private static boolean isSignature(String signature) {
+
+		if( signature.isEmpty() ) {
+			return false;
+		}
+		for(int i = 0; i<signature.length(); i++) {
+			if( signature.charAt(i) < '0' || signature.charAt(i) > '9' ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This function parses the number of words asked for by a TOP request
+	 * @param count is the argument to parse
+	 * @return the number of words, or -1 if it is not a non-negative integer
+	 */
+	private static int parseCount(String count) {
+		try {
+			return Math.max(-1, Integer.parseInt(count));
+		}catch(NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * This function returns the index of the first occurrence of a byte
+	 * @param bytes is the array to search
+	 * @param from is the first index to search
+	 * @param to is the index after the last to search
+	 * @param value is the byte to find
+	 * @return the index of the byte, or -1 if it is not present
+	 */
+	private static int indexOf(byte[] bytes, int from, int to, byte value) {
+		for(int i = from; i<to; i++) {
+			if( bytes[i] == value ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * This function creates the executor that runs one thread per connection
+	 * Virtual threads are looked up by reflection, so the server still
+	 * compiles and runs on JDKs without them
+	 * @return an executor starting a new thread for every task
+	 */
+	private static ExecutorService newConnectionExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+
+		}catch(ReflectiveOperationException | UnsupportedOperationException e) {
+			// No virtual threads (or only as a preview feature), use platform threads
+			return Executors.newCachedThreadPool(task -> {
+				Thread thread = new Thread(null, task, "dictionary-connection", PLATFORM_STACK_SIZE);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * This function closes a socket, ignoring any error
+	 * @param socket is the socket to close (may be null)
+	 */
+	private static void closeQuietly(Socket socket) {
+		try {
+			if( socket != null ) {
+				socket.close();
+			}
+		}catch(IOException e) {
+			// Nothing more can be done with the socket
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 * This function stops accepting connections and closes every open connection
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		serverSocket.close();
+
+		for(Socket socket : connections) {
+			closeQuietly(socket);
+		}
+		executor.shutdownNow();
+	}
+
+	/**
+	 * This function returns the port the server is listening on
+	 * @return the local port
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * This function returns the number of open connections
+	 * @return the number of connections being served
+	 */
+	public int getConnectionCount() {
+		return connections.size();
+	}
+
+	/**
+	 * This function returns the number of requests answered so far
+	 * @return the number of requests (excluding blank lines)
+	 */
+	public long getRequestCount() {
+		return requestCount.sum();
+	}
+
+}
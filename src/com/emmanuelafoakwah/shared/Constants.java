@@ -3,6 +3,9 @@ package com.emmanuelafoakwah.shared;
 /**
  * This class is intended to hold constant variables:
  * - Dictionary path
+ * - Compiled (binary) dictionary path
+ * - Word count above which dictionaries are built in parallel
+ * - Number of signatures looked up by each task of an asynchronous batch
  * @author Emmanuel Afoakwah
  */
 public class Constants {
@@ -10,4 +13,10 @@ public class Constants {
     public static final String DICTIONARY_PATH
             = "C:\\Users\\Manny\\Desktop\\GitHub\\T9_Predictive_Text\\src\\com\\emmanuelafoakwah\\shared\\Dictionary";
 
+    public static final String BINARY_DICTIONARY_PATH = DICTIONARY_PATH + ".t9bd";
+
+    public static final int PARALLEL_BUILD_THRESHOLD = 50000;
+
+    public static final int BATCH_QUERY_CHUNK_SIZE = 4096;
+
 }
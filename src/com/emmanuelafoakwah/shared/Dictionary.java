@@ -1,9 +1,24 @@
 package com.emmanuelafoakwah.shared;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import static com.emmanuelafoakwah.shared.Constants.BATCH_QUERY_CHUNK_SIZE;
 
 /**
  * This interface defines the necessary function for dictionary classes
+ * The implementations are not modified once built, so a single dictionary
+ * can be queried from any number of threads without locking
+ * (see ReloadingDictionary to replace a dictionary while it is in use)
+ * unless words are added or removed through MutableDictionary
  * @author Emmanuel Afoakwah
  *
  */
@@ -19,4 +34,103 @@ public interface Dictionary {
 	 */
 	public Set<String> signatureToWords(String signature);
 	
+	/**
+	 * This function returns up to k of the words pertaining to the given signature,
+	 * most frequent first (ties in alphabetical order)
+	 * Implementations with word frequencies keep their candidates ranked at build time,
+	 * this default takes the first k words of signatureToWords (alphabetical order)
+	 * @param signature
+	 * @param k is the maximum number of words to return
+	 * @return a list of at most k words in rank order
+	 */
+	public default List<String> topWords(String signature, int k) {
+		
+		List<String> out = new ArrayList<String>(Math.min(k, 16));
+		
+		for(String word : signatureToWords(signature)) {
+			if( out.size() >= k ) {
+				break;
+			}
+			out.add(word);
+		}
+		return out;
+	}
+	
+	/**
+	 * This function returns the set of words pertaining to each of the given signatures
+	 * Implementations may sort the signatures to visit their index in order
+	 * (eg. ListDictionary, TreeDictionary), this default calls signatureToWords
+	 * once per distinct signature
+	 * @param signatures are the signatures to look up (repeats are looked up once)
+	 * @return a map from each signature to its set of words
+	 */
+	public default Map<String, Set<String>> signaturesToWords(Collection<String> signatures) {
+		
+		Map<String, Set<String>> out = new HashMap<String, Set<String>>();
+		
+		for(String signature : signatures) {
+			if( !out.containsKey(signature) ) {
+				out.put(signature, signatureToWords(signature));
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * This function returns the distinct signatures of a batch in sorted order
+	 * (repeats are removed with a hash set first, as batches often repeat signatures)
+	 * @param signatures are the signatures of the batch
+	 * @return a sorted array of the distinct signatures
+	 */
+	public static String[] sortedSignatures(Collection<String> signatures) {
+		
+		String[] out = new HashSet<String>(signatures).toArray(new String[0]);
+		Arrays.sort(out);
+		return out;
+	}
+	
+	/**
+	 * This function looks up the given signatures on the common ForkJoinPool
+	 * (see signaturesToWordsAsync(Collection, Executor))
+	 * @param signatures are the signatures to look up
+	 * @return a future completed with a map from each signature to its set of words
+	 */
+	public default CompletableFuture<Map<String, Set<String>>> signaturesToWordsAsync(Collection<String> signatures) {
+		return signaturesToWordsAsync(signatures, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * This function looks up the given signatures on the given executor
+	 * The signatures are sorted and split into chunks of consecutive signatures
+	 * (see Constants.BATCH_QUERY_CHUNK_SIZE), each chunk is looked up by a
+	 * separate signaturesToWords task, so a large batch is spread over the
+	 * threads of the executor and every task still visits the index in order
+	 * @param signatures are the signatures to look up (copied before returning)
+	 * @param executor runs the lookups (eg. a thread pool owned by the caller)
+	 * @return a future completed with a map from each signature to its set of words,
+	 * 		or completed exceptionally if a lookup fails
+	 */
+	public default CompletableFuture<Map<String, Set<String>>> signaturesToWordsAsync(Collection<String> signatures, Executor executor) {
+		
+		// Sort the distinct signatures so each chunk is a contiguous range
+		List<String> sorted = Arrays.asList(sortedSignatures(signatures));
+		List<CompletableFuture<Map<String, Set<String>>>> chunks = new ArrayList<CompletableFuture<Map<String, Set<String>>>>();
+		
+		for(int from = 0; from<sorted.size(); from += BATCH_QUERY_CHUNK_SIZE) {
+			List<String> chunk = sorted.subList(from, Math.min(from + BATCH_QUERY_CHUNK_SIZE, sorted.size()));
+			chunks.add(CompletableFuture.supplyAsync(() -> signaturesToWords(chunk), executor));
+		}
+		
+		// Merge the results of the chunks once they are all complete
+		return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+			
+			Map<String, Set<String>> out = new HashMap<String, Set<String>>(sorted.size() * 4 / 3 + 1);
+			
+			for(CompletableFuture<Map<String, Set<String>>> chunk : chunks) {
+				out.putAll(chunk.join());
+			}
+			return out;
+		});
+	}
+	
 }
@@ -0,0 +1,35 @@
+package com.emmanuelafoakwah.shared;
+
+/**
+ * This interface defines the functions for dictionaries that can learn
+ * and forget words after they are built
+ * 
+ * Each update only touches the entries for the word's own signature
+ * (one node per digit for the Tree Dictionary), it never rebuilds the dictionary
+ * Updates are synchronized with each other, but a query running on another
+ * thread at the same time as an update must be guarded by the caller
+ * Updates are held in memory only, see WordJournal to keep them across restarts
+ * @author Emmanuel Afoakwah
+ *
+ */
+public interface MutableDictionary extends Dictionary {
+	
+	/**
+	 * This function adds a word to the dictionary
+	 * The word is stored in lower case with no frequency,
+	 * so it ranks after the words with a frequency
+	 * @param word is the word to add
+	 * @return a boolean indicating whether the word was added 
+	 * (false if it was already present or is not a valid word)
+	 */
+	public boolean addWord(String word);
+	
+	/**
+	 * This function removes a word from the dictionary
+	 * @param word is the word to remove
+	 * @return a boolean indicating whether the word was removed
+	 * (false if it was not present)
+	 */
+	public boolean removeWord(String word);
+	
+}
@@ -0,0 +1,215 @@
+package com.emmanuelafoakwah.shared;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidSignature;
+
+/**
+ * This class answers a stream of signature queries for the Sigs2Words
+ * command line programs, so a dictionary is loaded once and can then answer
+ * any number of queries
+ * 
+ * The arguments of the program are processed in order:
+ * - "-" reads signatures from standard input, one per line
+ * - "-f path" reads signatures from the given file, one per line
+ * - anything else is a signature to look up
+ * eg.) java Sigs2WordsTree 4663 -f queries.txt
+ * 		cat queries.txt | java Sigs2WordsTree -
+ * Each valid signature is answered with a line "signature: [words]", as before
+ * 
+ * Signatures are read and answered in batches, and the answers are written
+ * through one large buffer rather than flushing System.out on every line
+ * The buffer is flushed whenever no more input is waiting, so interactive use
+ * sees each answer straight away while a pipeline gets large writes
+ * When the reader of the output falls behind, writing blocks and no more
+ * input is read until it catches up, so memory use stays bounded
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class QueryStream {
+	
+	// Default number of signatures answered together
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+	
+	// Size of the input and output buffers in chars
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	// Declaring stream properties
+	private final Function<List<String>, List<Set<String>>> query;
+	private final int batchSize;
+	private final Writer out;
+	private long queryCount;
+	
+	/**
+	 * This is the constructor for a stream answering queries with a dictionary
+	 * and writing the answers to standard output
+	 * @param dictionary is the dictionary to query
+	 */
+	public QueryStream(Dictionary dictionary) {
+		this(signatures -> signaturesToWords(dictionary, signatures), DEFAULT_BATCH_SIZE, 
+				new FileOutputStream(FileDescriptor.out));
+	}
+	
+	/**
+	 * This is the constructor for a stream answering queries a batch at a time
+	 * @param query returns the set of words for each signature of a batch, in order
+	 * @param batchSize is the largest number of signatures to pass to the query at once
+	 * @param out is the stream to write the answers to
+	 */
+	public QueryStream(Function<List<String>, List<Set<String>>> query, int batchSize, OutputStream out) {
+		if( batchSize < 1 ) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		this.query = query;
+		this.batchSize = batchSize;
+		this.out = new BufferedWriter(new OutputStreamWriter(out), BUFFER_SIZE);
+	}
+	
+	/**
+	 * This function processes the arguments of a Sigs2Words program (see above)
+	 * If a file cannot be read or the output cannot be written
+	 * a message is printed along with the stack trace
+	 * @param args are the arguments of the program
+	 */
+	public void run(String[] args) {
+		
+		List<String> batch = new ArrayList<String>();
+		
+		try {
+			for(int i = 0; i<args.length; i++) {
+				
+				if( args[i].equals("-") || (args[i].equals("-f") && i + 1 < args.length) ) {
+					
+					// Answer the signatures given so far before reading the input
+					answer(batch);
+					batch.clear();
+					
+					if( args[i].equals("-") ) {
+						stream(new BufferedReader(new InputStreamReader(System.in), BUFFER_SIZE));
+					}else {
+						try( BufferedReader in = Files.newBufferedReader(Paths.get(args[++i])) ) {
+							stream(in);
+						}
+					}
+				}else if( isValidSignature(args[i]) ) {
+					batch.add(args[i]);
+				}
+			}
+			answer(batch);
+			out.flush();
+			
+		}catch(IOException e) {
+			System.out.println("Could not process the signatures ...");
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * This function answers every signature read from the input, one per line
+	 * Blank lines and lines that are not a valid signature are skipped
+	 * @param in is the input to read the signatures from
+	 * @throws IOException if the input cannot be read or the output written
+	 */
+	public void stream(BufferedReader in) throws IOException {
+		
+		List<String> batch = new ArrayList<String>(Math.min(batchSize, DEFAULT_BATCH_SIZE));
+		String line;
+		
+		while( (line = in.readLine()) != null ) {
+			
+			String signature = line.trim();
+			
+			if( !signature.isEmpty() && isValidSignature(signature) ) {
+				batch.add(signature);
+			}
+			
+			// Answer the batch once it is full or no more input is waiting
+			boolean waiting = in.ready();
+			
+			if( batch.size() >= batchSize || !waiting ) {
+				answer(batch);
+				batch.clear();
+				
+				if( !waiting ) {
+					out.flush();
+				}
+			}
+		}
+		answer(batch);
+		out.flush();
+	}
+	
+	/**
+	 * This function writes the answer to each signature of a batch
+	 * @param batch holds the signatures to answer
+	 * @throws IOException if the output cannot be written
+	 */
+	private void answer(List<String> batch) throws IOException {
+		
+		if( batch.isEmpty() ) {
+			return;
+		}
+		
+		List<Set<String>> results = query.apply(batch);
+		
+		for(int i = 0; i<batch.size(); i++) {
+			out.write(batch.get(i));
+			out.write(": [");
+			
+			// Write the words as Set.toString would, without building the String
+			Iterator<String> words = results.get(i).iterator();
+			
+			while( words.hasNext() ) {
+				out.write(words.next());
+				
+				if( words.hasNext() ) {
+					out.write(", ");
+				}
+			}
+			out.write("]\n");
+		}
+		queryCount += batch.size();
+	}
+	
+	/**
+	 * This function looks up each signature of a batch in a dictionary
+	 * @param dictionary is the dictionary to query
+	 * @param signatures are the signatures to look up
+	 * @return the set of words for each signature, in the same order
+	 */
+	private static List<Set<String>> signaturesToWords(Dictionary dictionary, List<String> signatures) {
+		
+		// Look up the batch at once, so the dictionary can visit its index in order
+		Map<String, Set<String>> words = dictionary.signaturesToWords(signatures);
+		List<Set<String>> out = new ArrayList<Set<String>>(signatures.size());
+		
+		for(String signature : signatures) {
+			out.add(words.get(signature));
+		}
+		return out;
+	}
+	
+	/**
+	 * This function returns the number of signatures answered so far
+	 * @return the number of queries answered
+	 */
+	public long getQueryCount() {
+		return queryCount;
+	}
+	
+}
@@ -0,0 +1,228 @@
+package com.emmanuelafoakwah.shared;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class converts words into T9 signatures and signatures into packed numeric keys
+ *
+ * Words are encoded through a lookup table indexed by character, letters a-z
+ * (either case) map to their digit and every other character maps to a space,
+ * the same output as PredictivePrototype.wordToSignature
+ * The encoding functions write into caller supplied arrays (or return a
+ * packed key) so that no objects are allocated per word
+ *
+ * A signature only uses the eight digits 2-9, so each digit fits in 3 bits.
+ * The digits are packed below a leading 1 bit which marks the signature length,
+ * eg.) "23" -> 1 000 001 (binary)
+ * This allows signatures of up to 21 digits to be stored in a single long,
+ * with distinct signatures always producing distinct keys
+ *
+ * @author Emmanuel Afoakwah
+ */
+public final class SignatureCodec {
+
+	// The longest signature that can be packed into a long key
+	public static final int MAX_PACKED_LENGTH = 21;
+
+	// The key returned for signatures that cannot be packed
+	public static final long NO_KEY = 0L;
+
+	// Bits used per signature digit
+	private static final int BITS_PER_DIGIT = 3;
+
+	// The signature character for non a-z characters
+	public static final char NO_DIGIT = ' ';
+
+	// Lookup table from ASCII character to signature character
+	private static final char[] DIGITS = new char[128];
+
+	static {
+		String[] keys = {"abc", "def", "ghi", "jkl", "mno", "pqrs", "tuv", "wxyz"};
+
+		Arrays.fill(DIGITS, NO_DIGIT);
+
+		for(int i = 0; i<keys.length; i++) {
+			for(char c : keys[i].toCharArray()) {
+				DIGITS[c] = (char) ('2' + i);
+				DIGITS[Character.toUpperCase(c)] = (char) ('2' + i);
+			}
+		}
+	}
+
+	/**
+	 * This class only holds static functions
+	 */
+	private SignatureCodec() {
+	}
+
+	/**
+	 * This function returns the signature digit for a single character
+	 * @param c is the character to convert
+	 * @return the digit '2' to '9' for the letters a-z (either case), otherwise a space
+	 */
+	public static char digitOf(char c) {
+
+		if( c < 128 ) {
+			return DIGITS[c];
+		}
+
+		// Non ASCII letters only have a digit if they lower case to a-z
+		char lower = Character.toLowerCase(c);
+		return (lower < 128 && Character.isAlphabetic(c)) ? DIGITS[lower] : NO_DIGIT;
+	}
+
+	/**
+	 * This function writes the signature of a word into the given array
+	 * @param word is the word to convert
+	 * @param dest is the array to write the signature into
+	 * @param offset is the index in dest to start writing from
+	 * @return the number of characters written (the length of the word)
+	 */
+	public static int encodeWord(CharSequence word, char[] dest, int offset) {
+
+		int length = word.length();
+
+		for(int i = 0; i<length; i++) {
+			dest[offset + i] = digitOf(word.charAt(i));
+		}
+		return length;
+	}
+
+	/**
+	 * This function writes the signature of a word held in a char array
+	 * into the given array (the source and destination may be the same array)
+	 * @param src is the array holding the word
+	 * @param from is the index of the first character of the word
+	 * @param to is the index after the last character of the word
+	 * @param dest is the array to write the signature into
+	 * @param offset is the index in dest to start writing from
+	 * @return the number of characters written
+	 */
+	public static int encodeWord(char[] src, int from, int to, char[] dest, int offset) {
+
+		for(int i = from; i<to; i++) {
+			dest[offset + i - from] = digitOf(src[i]);
+		}
+		return to - from;
+	}
+
+	/**
+	 * This function writes the signatures of a batch of words back to back
+	 * into a single array
+	 * @param words is the list of words to convert
+	 * @param dest is the array to write the signatures into (at least the total word length)
+	 * @param ends is filled with the index after the end of each signature in dest
+	 * @return the total number of characters written
+	 */
+	public static int encodeWords(List<? extends CharSequence> words, char[] dest, int[] ends) {
+
+		int offset = 0;
+
+		for(int i = 0; i<words.size(); i++) {
+			offset += encodeWord(words.get(i), dest, offset);
+			ends[i] = offset;
+		}
+		return offset;
+	}
+
+	/**
+	 * This function converts a word straight into a packed signature key
+	 * without building the signature string
+	 * @param word is the word to convert
+	 * @return the packed key, or NO_KEY if the word is too long
+	 * or contains a character other than a-z
+	 */
+	public static long packWord(CharSequence word) {
+
+		int length = word.length();
+
+		if( length > MAX_PACKED_LENGTH ) {
+			return NO_KEY;
+		}
+
+		long key = 1L;
+
+		for(int i = 0; i<length; i++) {
+			char digit = digitOf(word.charAt(i));
+
+			if( digit == NO_DIGIT ) {
+				return NO_KEY;
+			}
+			key = (key << BITS_PER_DIGIT) | (digit - '2');
+		}
+		return key;
+	}
+
+	/**
+	 * This function converts a batch of words into packed signature keys
+	 * @param words is the list of words to convert
+	 * @param keys is filled with the packed key (or NO_KEY) of each word
+	 */
+	public static void packWords(List<? extends CharSequence> words, long[] keys) {
+		for(int i = 0; i<words.size(); i++) {
+			keys[i] = packWord(words.get(i));
+		}
+	}
+
+	/**
+	 * This function packs a signature into a long key
+	 * @param signature is the signature to pack (digits 2-9 only)
+	 * @return the packed key, or NO_KEY if the signature is too long
+	 * or contains a character other than the digits 2-9
+	 */
+	public static long packSignature(CharSequence signature) {
+
+		int length = signature.length();
+
+		if( length > MAX_PACKED_LENGTH ) {
+			return NO_KEY;
+		}
+
+		// Start with the length marker bit and shift in each digit
+		long key = 1L;
+
+		for(int i = 0; i<length; i++) {
+			int digit = signature.charAt(i) - '2';
+
+			if( digit < 0 || digit > 7 ) {
+				return NO_KEY;
+			}
+			key = (key << BITS_PER_DIGIT) | digit;
+		}
+		return key;
+	}
+
+	/**
+	 * This function converts a packed key back into its signature
+	 * @param key is a key produced by packSignature
+	 * @return the signature represented by the key
+	 */
+	public static String unpackSignature(long key) {
+
+		if( key == NO_KEY ) {
+			throw new IllegalArgumentException("NO_KEY does not represent a signature");
+		}
+
+		int length = packedLength(key);
+		char[] out = new char[length];
+
+		for(int i = length - 1; i>=0; i--) {
+			out[i] = (char) ('2' + (key & 7));
+			key >>>= BITS_PER_DIGIT;
+		}
+		return new String(out);
+	}
+
+	/**
+	 * This function returns the number of digits in a packed signature
+	 * @param key is a key produced by packSignature
+	 * @return the length of the signature represented by the key
+	 */
+	public static int packedLength(long key) {
+
+		// The position of the length marker bit gives the number of digits
+		return (63 - Long.numberOfLeadingZeros(key)) / BITS_PER_DIGIT;
+	}
+
+}
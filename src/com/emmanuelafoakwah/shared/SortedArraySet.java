@@ -0,0 +1,71 @@
+package com.emmanuelafoakwah.shared;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is an immutable set of Strings backed by a sorted array
+ *
+ * It iterates in alphabetical order like a TreeSet, but only holds a single
+ * array, so it is much smaller when a large number of result sets are
+ * precomputed and kept for the lifetime of a dictionary
+ * Any attempt to modify the set throws UnsupportedOperationException
+ *
+ * @author Emmanuel Afoakwah
+ */
+public final class SortedArraySet extends AbstractSet<String> {
+
+	// Shared empty set
+	public static final SortedArraySet EMPTY = new SortedArraySet(new String[0]);
+
+	// The sorted, distinct elements
+	private final String[] elements;
+
+	/**
+	 * This is the constructor for a set of the given words
+	 * @param words are the distinct words of the set (copied and sorted)
+	 */
+	public SortedArraySet(String[] words) {
+		this.elements = words.clone();
+		Arrays.sort(this.elements);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 * Binary search of the sorted array
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof String) && Arrays.binarySearch(elements, (String) o) >= 0;
+	}
+
+	@Override
+	public int size() {
+		return elements.length;
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < elements.length;
+			}
+
+			@Override
+			public String next() {
+				if( index >= elements.length ) {
+					throw new NoSuchElementException();
+				}
+				return elements[index++];
+			}
+		};
+	}
+
+}
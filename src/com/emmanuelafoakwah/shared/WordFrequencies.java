@@ -0,0 +1,111 @@
+package com.emmanuelafoakwah.shared;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * This class holds the helper functions for word frequencies
+ *
+ * Each line of a dictionary text file holds a word, optionally followed
+ * by whitespace and the frequency of the word eg.) "hello 120"
+ * Lines without a frequency give the word a frequency of 0
+ * Candidates are ranked by descending frequency, ties are broken alphabetically
+ *
+ * @author Emmanuel Afoakwah
+ */
+public final class WordFrequencies {
+
+	/**
+	 * This class only holds static functions
+	 */
+	private WordFrequencies() {
+	}
+
+	/**
+	 * This function returns the lower case word from a dictionary line
+	 * @param line is the line of the dictionary file
+	 * @return the word on the line (without the frequency)
+	 */
+	public static String parseWord(String line) {
+
+		String text = line.trim();
+		int split = indexOfWhitespace(text);
+
+		return ((split < 0) ? text : text.substring(0, split)).toLowerCase();
+	}
+
+	/**
+	 * This function returns the frequency from a dictionary line
+	 * @param line is the line of the dictionary file
+	 * @return the frequency on the line, 0 if there is none,
+	 * or -1 if the frequency is not a valid non-negative integer
+	 */
+	public static int parseFrequency(String line) {
+
+		String text = line.trim();
+		int split = indexOfWhitespace(text);
+
+		if( split < 0 ) {
+			return 0;
+		}
+
+		try {
+			return Math.max(-1, Integer.parseInt(text.substring(split).trim()));
+		}catch(NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * This function adds a frequency to the running total of a word
+	 * Only non-zero totals are stored, so word lists without frequencies add nothing
+	 * @param frequencies is the map of word frequencies to update
+	 * @param word is the word
+	 * @param frequency is the frequency to add
+	 */
+	public static void addFrequency(Map<String, Integer> frequencies, String word, int frequency) {
+		if( frequency > 0 ) {
+			frequencies.merge(word, frequency, (a, b) -> (int) Math.min(Integer.MAX_VALUE, (long) a + b));
+		}
+	}
+
+	/**
+	 * This function returns a comparator ranking words by descending frequency
+	 * and then alphabetically
+	 * @param frequencies is the map of word frequencies (missing words count as 0)
+	 * @return the ranking comparator
+	 */
+	public static Comparator<String> byFrequency(Map<String, Integer> frequencies) {
+		return Comparator.<String>comparingInt(w -> -frequencies.getOrDefault(w, 0))
+				.thenComparing(Comparator.naturalOrder());
+	}
+
+	/**
+	 * This function returns the candidates in rank order
+	 * @param candidates are the words to rank
+	 * @param frequencies is the map of word frequencies (missing words count as 0)
+	 * @return a new array of the candidates ordered by rank
+	 */
+	public static String[] rank(Collection<String> candidates, Map<String, Integer> frequencies) {
+		String[] out = candidates.toArray(new String[0]);
+		Arrays.sort(out, byFrequency(frequencies));
+		return out;
+	}
+
+	/**
+	 * This function returns the index of the first whitespace character
+	 * @param text is the text to search
+	 * @return the index of the first whitespace character, or -1 if there is none
+	 */
+	private static int indexOfWhitespace(String text) {
+		for(int i = 0; i<text.length(); i++) {
+			if( Character.isWhitespace(text.charAt(i)) ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
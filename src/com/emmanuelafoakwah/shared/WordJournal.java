@@ -0,0 +1,360 @@
+package com.emmanuelafoakwah.shared;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseWord;
+
+/**
+ * This class keeps the words added to and removed from a MutableDictionary
+ * across restarts, in an append-only journal next to the dictionary text file
+ * 
+ * Each update is appended to "path.journal" as one line, "+word" for an added
+ * word and "-word" for a removed word, so learning a word is a single short write
+ * On startup the journal is replayed onto the dictionary built from the text file
+ * eg.) WordJournal journal = new WordJournal(path);
+ * 		TreeDictionary dictionary = journal.replay(new TreeDictionary(path));
+ * 		journal.addWord(dictionary, "emmanuel");
+ * 
+ * Once the journal holds enough updates it is compacted on a background thread:
+ * the journal is moved aside to "path.journal.compacting", a new journal is started
+ * for further updates and the moved updates are merged into a copy of the text file,
+ * which then replaces the text file in a single (atomic) move
+ * Replaying an update twice has no effect, so a compaction interrupted at any
+ * point is completed by the next replay and compaction
+ * 
+ * The dictionary in memory is never rebuilt by a compaction, although a
+ * ReloadingDictionary watching the text file will reload it afterwards
+ * (its loader should replay the journal as above)
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class WordJournal implements Closeable {
+	
+	// Default number of journal entries that triggers a compaction
+	public static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+	
+	// Declaring journal properties
+	private final Path basePath;
+	private final Path journalPath;
+	private final Path compactingPath;
+	private final int compactThreshold;
+	
+	// Writer appending to the journal and the number of entries it holds
+	private BufferedWriter writer;
+	private int entries;
+	
+	// Background compaction (at most one at a time)
+	private final ExecutorService compactor;
+	private final AtomicBoolean compactionPending = new AtomicBoolean();
+	private final Object compactLock = new Object();
+	
+	/**
+	 * This is the constructor for the journal of the given dictionary text file
+	 * @param path is the String path to the dictionary text file
+	 * @throws IOException if the journal cannot be opened
+	 */
+	public WordJournal(String path) throws IOException {
+		this(path, DEFAULT_COMPACT_THRESHOLD);
+	}
+	
+	/**
+	 * This is the constructor for the journal of the given dictionary text file
+	 * @param path is the String path to the dictionary text file
+	 * @param compactThreshold is the number of journal entries that triggers a compaction
+	 * @throws IOException if the journal cannot be opened
+	 */
+	public WordJournal(String path, int compactThreshold) throws IOException {
+		this.basePath = Paths.get(path).toAbsolutePath();
+		this.journalPath = Paths.get(basePath + ".journal");
+		this.compactingPath = Paths.get(basePath + ".journal.compacting");
+		this.compactThreshold = compactThreshold;
+		this.writer = openWriter();
+		
+		this.compactor = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "journal-compaction");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * This function applies the updates in the journal to a dictionary
+	 * built from the text file, oldest first
+	 * @param dictionary is the dictionary to update
+	 * @return the given dictionary
+	 * @throws IOException if the journal cannot be read
+	 */
+	public synchronized <D extends MutableDictionary> D replay(D dictionary) throws IOException {
+		
+		// Updates from an unfinished compaction are older than the journal
+		replay(compactingPath, dictionary);
+		entries = replay(journalPath, dictionary);
+		return dictionary;
+	}
+	
+	/**
+	 * This function applies the updates in one journal file to a dictionary
+	 * @param path is the journal file
+	 * @param dictionary is the dictionary to update
+	 * @return the number of updates in the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private static int replay(Path path, MutableDictionary dictionary) throws IOException {
+		
+		if( !Files.exists(path) ) {
+			return 0;
+		}
+		
+		int out = 0;
+		
+		try( BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8) ) {
+			
+			String line;
+			
+			while( (line = reader.readLine()) != null ) {
+				
+				// Skip anything but complete entries (eg. a line cut short by a crash)
+				if( line.length() < 2 ) {
+					continue;
+				}
+				
+				if( line.charAt(0) == '+' ) {
+					dictionary.addWord(line.substring(1));
+				}else if( line.charAt(0) == '-' ) {
+					dictionary.removeWord(line.substring(1));
+				}
+				out++;
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * This function adds a word to the dictionary and records it in the journal
+	 * @param dictionary is the dictionary to add the word to
+	 * @param word is the word to add
+	 * @return a boolean indicating whether the word was added
+	 * @throws IOException if the journal cannot be written
+	 */
+	public boolean addWord(MutableDictionary dictionary, String word) throws IOException {
+		
+		if( !dictionary.addWord(word) ) {
+			return false;
+		}
+		append('+', word.toLowerCase());
+		return true;
+	}
+	
+	/**
+	 * This function removes a word from the dictionary and records it in the journal
+	 * @param dictionary is the dictionary to remove the word from
+	 * @param word is the word to remove
+	 * @return a boolean indicating whether the word was removed
+	 * @throws IOException if the journal cannot be written
+	 */
+	public boolean removeWord(MutableDictionary dictionary, String word) throws IOException {
+		
+		if( !dictionary.removeWord(word) ) {
+			return false;
+		}
+		append('-', word.toLowerCase());
+		return true;
+	}
+	
+	/**
+	 * This function appends one entry to the journal, starting a
+	 * background compaction once the journal is large enough
+	 * @param operation is '+' for an added word or '-' for a removed word
+	 * @param word is the word
+	 * @throws IOException if the journal cannot be written
+	 */
+	private synchronized void append(char operation, String word) throws IOException {
+		
+		writer.write(operation);
+		writer.write(word);
+		writer.newLine();
+		writer.flush();
+		
+		if( ++entries >= compactThreshold ) {
+			compactInBackground();
+		}
+	}
+	
+	/**
+	 * This function starts a compaction on the background thread,
+	 * unless one is already waiting to run
+	 */
+	public void compactInBackground() {
+		
+		if( !compactionPending.compareAndSet(false, true) ) {
+			return;
+		}
+		
+		compactor.execute(() -> {
+			
+			/*
+			 * Try catch block compacting the journal
+			 * If it fails, a message is printed along with the stack trace,
+			 * the updates stay in the journal files and are compacted next time
+			 */
+			try {
+				compact();
+			}catch(IOException e) {
+				System.out.println("Journal compaction failed ...");
+				e.printStackTrace();
+			}finally {
+				compactionPending.set(false);
+			}
+		});
+	}
+	
+	/**
+	 * This function merges the journal into the dictionary text file
+	 * Updates are only blocked while the journal is moved aside,
+	 * not while the text file is rewritten
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public void compact() throws IOException {
+		
+		synchronized(compactLock) {
+			
+			// Move the journal aside, unless an unfinished compaction has to be completed first
+			synchronized(this) {
+				if( !Files.exists(compactingPath) ) {
+					if( entries == 0 ) {
+						return;
+					}
+					writer.close();
+					Files.move(journalPath, compactingPath, StandardCopyOption.REPLACE_EXISTING);
+					writer = openWriter();
+					entries = 0;
+				}
+			}
+			
+			merge();
+			Files.delete(compactingPath);
+		}
+	}
+	
+	/**
+	 * This function writes a copy of the text file with the updates of the moved
+	 * journal applied, then moves it over the text file
+	 * Lines of removed words are dropped, added words missing from the file are
+	 * appended and every other line (including its frequency) is kept as it is
+	 * @throws IOException if a file cannot be read or written
+	 */
+	private void merge() throws IOException {
+		
+		// The last update of each word decides whether it is kept
+		Map<String, Boolean> updates = new LinkedHashMap<String, Boolean>();
+		
+		try( BufferedReader reader = Files.newBufferedReader(compactingPath, StandardCharsets.UTF_8) ) {
+			String line;
+			
+			while( (line = reader.readLine()) != null ) {
+				if( line.length() >= 2 && (line.charAt(0) == '+' || line.charAt(0) == '-') ) {
+					String word = line.substring(1);
+					updates.remove(word);
+					updates.put(word, line.charAt(0) == '+');
+				}
+			}
+		}
+		
+		Path merged = Files.createTempFile(basePath.getParent(), "t9merge", ".txt");
+		
+		try {
+			try( BufferedWriter out = Files.newBufferedWriter(merged, StandardCharsets.UTF_8) ) {
+				
+				// Copy the text file, leaving out removed words
+				if( Files.exists(basePath) ) {
+					try( BufferedReader reader = Files.newBufferedReader(basePath, StandardCharsets.UTF_8) ) {
+						String line;
+						
+						while( (line = reader.readLine()) != null ) {
+							Boolean update = updates.get(parseWord(line));
+							
+							if( update == null || update ) {
+								out.write(line);
+								out.newLine();
+							}
+							
+							// An added word already in the file needs no new line
+							if( update != null && update ) {
+								updates.put(parseWord(line), null);
+							}
+						}
+					}
+				}
+				
+				// Append the added words that were not in the file
+				for(Map.Entry<String, Boolean> update : updates.entrySet()) {
+					if( update.getValue() != null && update.getValue() ) {
+						out.write(update.getKey());
+						out.newLine();
+					}
+				}
+			}
+			
+			try {
+				Files.move(merged, basePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}catch(AtomicMoveNotSupportedException e) {
+				Files.move(merged, basePath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}finally {
+			Files.deleteIfExists(merged);
+		}
+	}
+	
+	/**
+	 * This function opens the journal for appending
+	 * @return a writer appending to the journal
+	 * @throws IOException if the journal cannot be opened
+	 */
+	private BufferedWriter openWriter() throws IOException {
+		return Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+	
+	/**
+	 * This function returns the number of entries in the journal
+	 * @return the number of updates since the last compaction
+	 */
+	public synchronized int getEntryCount() {
+		return entries;
+	}
+	
+	/**
+	 * This function waits for a running compaction and closes the journal
+	 * @throws IOException if the journal cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		compactor.shutdown();
+		
+		try {
+			compactor.awaitTermination(1, TimeUnit.MINUTES);
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+		synchronized(this) {
+			writer.close();
+		}
+	}
+	
+}
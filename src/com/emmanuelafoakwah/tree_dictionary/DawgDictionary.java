@@ -0,0 +1,520 @@
+package com.emmanuelafoakwah.tree_dictionary;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import com.emmanuelafoakwah.shared.SortedArraySet;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidWord;
+import static com.emmanuelafoakwah.shared.SignatureCodec.digitOf;
+import static com.emmanuelafoakwah.shared.WordFrequencies.addFrequency;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseFrequency;
+import static com.emmanuelafoakwah.shared.WordFrequencies.parseWord;
+import static com.emmanuelafoakwah.shared.WordFrequencies.rank;
+
+/**
+ * This class details the DAWG Dictionary, a memory efficient alternative to
+ * the Tree Dictionary for large word lists
+ *
+ * The words are stored in a minimized DAWG (directed acyclic word graph):
+ * a letter automaton in which words share both their common prefixes and
+ * their common suffixes, so every distinct state is stored once
+ * The automaton is built with the incremental algorithm for sorted input
+ * (Daciuk et al.) and then frozen into flat arrays:
+ * - firstEdge: the index of the first outgoing edge of each state
+ * - edgeLabels / edgeTargets: the letter and target state of each edge
+ * - finalStates: whether a word ends at each state
+ *
+ * signatureToWords returns the same trimmed (partial) matches as the Tree Dictionary,
+ * they are enumerated by following only the edges whose letter matches the
+ * signature digit at each depth, no word lists are stored per node
+ *
+ * Each state also stores the number of words below it, which numbers the words
+ * in alphabetical order while the edges are followed (a minimal perfect hash),
+ * so the frequency of each word is kept in a PackedIntArray by its number
+ * and topWords ranks the candidates by frequency as the Tree Dictionary does
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class DawgDictionary implements Dictionary {
+
+	// Declaring String path
+	private String path;
+
+	// Total frequency of each word with a non-zero frequency (only used while building)
+	private Map<String, Integer> frequencies = new HashMap<String, Integer>();
+
+	// Frozen automaton (state 0 is the start state)
+	private int[] firstEdge;
+	private char[] edgeLabels;
+	private int[] edgeTargets;
+	private boolean[] finalStates;
+	private int wordCount;
+
+	// Number of words below each state, and frequency of each word by its number
+	private PackedIntArray wordsBelow;
+	private PackedIntArray wordFrequencies;
+
+	/**
+	 * This is the constructor for the DAWG dictionary
+	 * @param path is the string path to the dictionary text file
+	 */
+	public DawgDictionary(String path) {
+		this.path = path;
+		storeDawg(getWords());
+		frequencies = null;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signatureToWords(java.lang.String)
+	 * This function returns the words pertaining to a given signature
+	 * trimmed to the length of the signature (as the Tree Dictionary)
+	 */
+	@Override
+	public Set<String> signatureToWords(String signature) {
+
+		List<String> out = new ArrayList<String>();
+		forEachCandidate(signature, out::add);
+
+		return out.isEmpty() ? new TreeSet<String>() : new SortedArraySet(out.toArray(new String[0]));
+	}
+
+	/**
+	 * This function passes each trimmed word matching the signature to the action,
+	 * in alphabetical order, as it is found in the automaton
+	 * @param signature is the signature to match (digits 2-9)
+	 * @param action is the function to call for each matching trimmed word
+	 */
+	public void forEachCandidate(String signature, Consumer<String> action) {
+		forEachMatch(signature, (word, state, number) -> action.accept(word));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * This function returns the k highest ranked trimmed words for the signature,
+	 * a trimmed word is ranked by the highest frequency of the words it is trimmed from
+	 * (as the LOUDS Dictionary)
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+
+		if( k <= 0 ) {
+			return Collections.emptyList();
+		}
+
+		Map<String, Integer> best = new HashMap<String, Integer>();
+
+		// The words below a matching state are numbered from the number of its first word
+		forEachMatch(signature, (word, state, number) -> {
+			int frequency = 0;
+
+			for(int w = number; w<number + wordsBelow.get(state); w++) {
+				frequency = Math.max(frequency, wordFrequencies.get(w));
+			}
+			best.put(word, frequency);
+		});
+
+		String[] ranked = rank(best.keySet(), best);
+		return Collections.unmodifiableList(Arrays.asList(ranked).subList(0, Math.min(k, ranked.length)));
+	}
+
+	/**
+	 * This function passes each trimmed word matching the signature to the visitor,
+	 * in alphabetical order, with the state it ends at and the number of the
+	 * first word below that state
+	 * @param signature is the signature to match (digits 2-9)
+	 * @param visitor is the function to call for each matching trimmed word
+	 */
+	private void forEachMatch(String signature, MatchVisitor visitor) {
+
+		// Only the digits 2-9 can match a letter
+		for(int i = 0; i<signature.length(); i++) {
+			if( signature.charAt(i) < '2' || signature.charAt(i) > '9' ) {
+				return;
+			}
+		}
+
+		if( !signature.isEmpty() && firstEdge.length > 1 ) {
+			search(0, 0, signature, new char[signature.length()], 0, visitor);
+		}
+	}
+
+	/**
+	 * This function recursively follows the edges matching the signature
+	 * Every state in the automaton leads to at least one word, so every
+	 * path as long as the signature is the prefix of a dictionary word
+	 * The number of the first word below a state is the number of words
+	 * that come before it: a word ending at an earlier state on the path,
+	 * or a word below an earlier edge of a state on the path
+	 * @param state is the current state
+	 * @param number is the number of the first word below the current state
+	 * @param signature is the signature to match
+	 * @param letters holds the letters of the current path
+	 * @param depth is the length of the current path
+	 * @param visitor is the function to call for each match
+	 */
+	private void search(int state, int number, String signature, char[] letters, int depth, MatchVisitor visitor) {
+
+		if( depth == signature.length() ) {
+			visitor.visit(new String(letters), state, number);
+			return;
+		}
+
+		char digit = signature.charAt(depth);
+		int next = number + (finalStates[state] ? 1 : 0);
+
+		for(int e = firstEdge[state]; e<firstEdge[state + 1]; e++) {
+			if( digitOf(edgeLabels[e]) == digit ) {
+				letters[depth] = edgeLabels[e];
+				search(edgeTargets[e], next, signature, letters, depth + 1, visitor);
+			}
+			next += wordsBelow.get(edgeTargets[e]);
+		}
+	}
+
+	/**
+	 * This function checks whether a whole word is in the dictionary
+	 * @param word is the word to look up
+	 * @return a boolean indicating whether the word is stored
+	 */
+	public boolean containsWord(String word) {
+
+		int state = 0;
+
+		for(int i = 0; i<word.length() && state >= 0; i++) {
+			state = edgeTarget(state, word.charAt(i));
+		}
+		return state >= 0 && finalStates[state];
+	}
+
+	/**
+	 * This function returns the target of the edge with the given letter
+	 * @param state is the state to leave
+	 * @param letter is the letter of the edge
+	 * @return the target state, or -1 if there is no such edge
+	 */
+	private int edgeTarget(int state, char letter) {
+
+		int index = Arrays.binarySearch(edgeLabels, firstEdge[state], firstEdge[state + 1], letter);
+		return (index < 0) ? -1 : edgeTargets[index];
+	}
+
+	/**
+	 * This function builds the minimized automaton from the given words
+	 * @param words are the words to store
+	 */
+	public void storeDawg(List<String> words) {
+
+		// The incremental algorithm needs the words sorted and distinct
+		String[] sorted = new TreeSet<String>(words).toArray(new String[0]);
+
+		BuildState root = new BuildState();
+		Map<BuildState, BuildState> register = new HashMap<BuildState, BuildState>();
+		List<BuildState> path = new ArrayList<BuildState>();
+		String previous = "";
+
+		for(String word : sorted) {
+
+			int common = commonPrefixLength(previous, word);
+
+			// The states after the common prefix are complete and can be merged
+			minimize(root, path, common, register);
+
+			BuildState state = (common == 0) ? root : path.get(common - 1);
+
+			for(int i = common; i<word.length(); i++) {
+				BuildState next = new BuildState();
+				state.addEdge(word.charAt(i), next);
+				path.add(next);
+				state = next;
+			}
+			state.isFinal = true;
+			previous = word;
+		}
+		minimize(root, path, 0, register);
+
+		wordCount = sorted.length;
+		freeze(root);
+		storeFrequencies(sorted);
+	}
+
+	/**
+	 * This function counts the words below each state and stores the
+	 * frequency of each word by its number (its index in alphabetical order)
+	 * @param sorted are the stored words in alphabetical order
+	 */
+	private void storeFrequencies(String[] sorted) {
+
+		int[] below = new int[finalStates.length];
+		Arrays.fill(below, -1);
+
+		if( below.length > 0 ) {
+			countWords(0, below);
+		}
+
+		wordsBelow = new PackedIntArray(below.length, wordCount);
+
+		for(int s = 0; s<below.length; s++) {
+			wordsBelow.set(s, below[s]);
+		}
+
+		// Words stored without reading a file have no frequency
+		Map<String, Integer> known = (frequencies == null) ? Collections.<String, Integer>emptyMap() : frequencies;
+		int maxFrequency = 0;
+
+		for(String word : sorted) {
+			maxFrequency = Math.max(maxFrequency, known.getOrDefault(word, 0));
+		}
+
+		wordFrequencies = new PackedIntArray(sorted.length, maxFrequency);
+
+		for(int w = 0; w<sorted.length; w++) {
+			wordFrequencies.set(w, known.getOrDefault(sorted[w], 0));
+		}
+	}
+
+	/**
+	 * This function counts the words below a state, counting each shared
+	 * state once (the recursion is only as deep as the longest word)
+	 * @param state is the state to count from
+	 * @param below holds the count of each state counted so far, -1 for the others
+	 * @return the number of words below the state, including one ending at it
+	 */
+	private int countWords(int state, int[] below) {
+
+		if( below[state] < 0 ) {
+			int count = finalStates[state] ? 1 : 0;
+
+			for(int e = firstEdge[state]; e<firstEdge[state + 1]; e++) {
+				count += countWords(edgeTargets[e], below);
+			}
+			below[state] = count;
+		}
+		return below[state];
+	}
+
+	/**
+	 * This function replaces each state on the path below the given depth with
+	 * an equivalent registered state, or registers it if there is none
+	 * @param root is the start state
+	 * @param path holds the states of the previous word (path.get(i) is reached after i+1 letters)
+	 * @param depth is the number of states to keep
+	 * @param register holds one instance of every distinct completed state
+	 */
+	private static void minimize(BuildState root, List<BuildState> path, int depth, Map<BuildState, BuildState> register) {
+
+		for(int i = path.size() - 1; i>=depth; i--) {
+
+			BuildState child = path.remove(i);
+			BuildState existing = register.putIfAbsent(child, child);
+
+			// Point the parent's last edge at the equivalent state
+			if( existing != null ) {
+				BuildState parent = (i == 0) ? root : path.get(i - 1);
+				parent.targets[parent.size - 1] = existing;
+			}
+		}
+	}
+
+	/**
+	 * This function converts the built automaton into the flat arrays
+	 * @param root is the start state
+	 */
+	private void freeze(BuildState root) {
+
+		// Number the states in breadth-first order
+		Map<BuildState, Integer> ids = new IdentityHashMap<BuildState, Integer>();
+		List<BuildState> states = new ArrayList<BuildState>();
+		ArrayDeque<BuildState> queue = new ArrayDeque<BuildState>();
+		int edges = 0;
+
+		ids.put(root, 0);
+		states.add(root);
+		queue.add(root);
+
+		while( !queue.isEmpty() ) {
+			BuildState state = queue.poll();
+			edges += state.size;
+
+			for(int i = 0; i<state.size; i++) {
+				if( !ids.containsKey(state.targets[i]) ) {
+					ids.put(state.targets[i], states.size());
+					states.add(state.targets[i]);
+					queue.add(state.targets[i]);
+				}
+			}
+		}
+
+		firstEdge = new int[states.size() + 1];
+		edgeLabels = new char[edges];
+		edgeTargets = new int[edges];
+		finalStates = new boolean[states.size()];
+
+		int e = 0;
+
+		for(int s = 0; s<states.size(); s++) {
+			BuildState state = states.get(s);
+			firstEdge[s] = e;
+			finalStates[s] = state.isFinal;
+
+			for(int i = 0; i<state.size; i++) {
+				edgeLabels[e] = state.labels[i];
+				edgeTargets[e] = ids.get(state.targets[i]);
+				e++;
+			}
+		}
+		firstEdge[states.size()] = e;
+	}
+
+	/**
+	 * This function returns the length of the common prefix of two strings
+	 * @param a is the first string
+	 * @param b is the second string
+	 * @return the number of leading characters the strings share
+	 */
+	private static int commonPrefixLength(String a, String b) {
+		int length = Math.min(a.length(), b.length());
+		int i = 0;
+
+		while( i < length && a.charAt(i) == b.charAt(i) ) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * This function reads the contents of the input file line by line
+	 * adding the valid word on each line to the output arraylist
+	 * @return an arraylist of strings representing the words in the dictionary text file
+	 */
+	public ArrayList<String> getWords(){
+
+		// Declaring path to Dictionary text file
+		File file = new File(path);
+
+		// Declaring output ArrayList
+		ArrayList<String> out = new ArrayList<String>();
+
+		/*
+		 * Try catch block attempting to read the dictionary text file
+		 * If the file is not present, a message is printed
+		 * along with the stack trace
+		 */
+		try {
+			Scanner scan = new Scanner(file);
+
+			while(scan.hasNextLine()) {
+				String line = scan.nextLine();
+				String dictWord = parseWord(line);
+				int frequency = parseFrequency(line);
+
+				if( !dictWord.isEmpty() && isValidWord(dictWord) && frequency >= 0 ) {
+					out.add(dictWord);
+					addFrequency(frequencies, dictWord, frequency);
+				}
+			}
+
+		}catch(FileNotFoundException e) {
+			System.out.println("File not found ...");
+			e.printStackTrace();
+		}
+		return out;
+	}
+
+	/**
+	 * This function returns the number of words stored
+	 * @return the number of distinct words
+	 */
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	/**
+	 * This function returns the number of states in the automaton
+	 * @return the number of states
+	 */
+	public int getStateCount() {
+		return finalStates.length;
+	}
+
+	/**
+	 * This function returns the number of edges in the automaton
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return edgeLabels.length;
+	}
+
+	/**
+	 * This interface receives the matches found by search
+	 */
+	private interface MatchVisitor {
+		void visit(String word, int state, int number);
+	}
+
+	/**
+	 * This class is a state of the automaton while it is being built
+	 * Two states are equal if they have the same finality and the same
+	 * edges to the same (already registered) target states
+	 */
+	private static class BuildState {
+
+		private boolean isFinal;
+		private char[] labels = new char[2];
+		private BuildState[] targets = new BuildState[2];
+		private int size;
+
+		void addEdge(char label, BuildState target) {
+			if( size == labels.length ) {
+				labels = Arrays.copyOf(labels, size * 2);
+				targets = Arrays.copyOf(targets, size * 2);
+			}
+			labels[size] = label;
+			targets[size] = target;
+			size++;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if( !(o instanceof BuildState) ) {
+				return false;
+			}
+
+			BuildState s = (BuildState) o;
+
+			if( isFinal != s.isFinal || size != s.size ) {
+				return false;
+			}
+			for(int i = 0; i<size; i++) {
+				if( labels[i] != s.labels[i] || targets[i] != s.targets[i] ) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = isFinal ? 1 : 0;
+
+			for(int i = 0; i<size; i++) {
+				h = 31 * (31 * h + labels[i]) + System.identityHashCode(targets[i]);
+			}
+			return h;
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+package com.emmanuelafoakwah.tree_dictionary;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class is a cursor into a Tree Dictionary for entering a signature
+ * one keystroke at a time
+ *
+ * The session keeps the path of Octree nodes for the digits entered so far,
+ * so pushing a digit is a single child lookup and popping a digit (backspace)
+ * returns to the previous node without searching the tree again
+ * Once a digit has no matching node the session stays on a dead path until
+ * enough digits are popped to return to a node of the tree
+ *
+ * A session holds the state of one user's input and is not thread-safe,
+ * any number of sessions can share the same Tree Dictionary
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class KeystrokeSession {
+
+	// Declaring session properties
+	private Octree root;
+	private Octree[] path = new Octree[16];
+	private StringBuilder signature = new StringBuilder();
+
+	/**
+	 * This is the constructor for a session on the given Tree Dictionary
+	 * @param dictionary is the Tree Dictionary to search
+	 */
+	public KeystrokeSession(TreeDictionary dictionary) {
+		this.root = dictionary.getDictionary();
+	}
+
+	/**
+	 * This function enters the next digit of the signature
+	 * @param digit is the digit pressed ('2' to '9')
+	 * @return a boolean indicating whether there are candidates for the new signature
+	 */
+	public boolean pushDigit(char digit) {
+
+		int depth = signature.length();
+		Octree parent = (depth == 0) ? root : currentNode();
+
+		// Move to the child for the digit (null once the path has no node)
+		Octree child = (parent == null) ? null : parent.getChild(digit);
+
+		if( depth == path.length ) {
+			path = Arrays.copyOf(path, depth * 2);
+		}
+		path[depth] = child;
+		signature.append(digit);
+
+		return child != null;
+	}
+
+	/**
+	 * This function removes the last digit of the signature
+	 * @return a boolean indicating whether a digit was removed
+	 */
+	public boolean popDigit() {
+
+		int depth = signature.length();
+
+		if( depth == 0 ) {
+			return false;
+		}
+		path[depth - 1] = null;
+		signature.setLength(depth - 1);
+		return true;
+	}
+
+	/**
+	 * This function clears the signature, returning the session to the root
+	 */
+	public void reset() {
+		Arrays.fill(path, 0, signature.length(), null);
+		signature.setLength(0);
+	}
+
+	/**
+	 * This function returns the words for the signature entered so far,
+	 * trimmed to the length of the signature (as TreeDictionary.signatureToWords)
+	 * @return the immutable set of candidate words, empty if there are none
+	 */
+	public Set<String> currentCandidates() {
+
+		Octree node = currentNode();
+
+		if( node == null ) {
+			return new TreeSet<String>();
+		}
+		return node.getTrimmedWords();
+	}
+
+	/**
+	 * This function returns the k highest ranked candidates for the
+	 * signature entered so far (as TreeDictionary.topWords)
+	 * @param k is the maximum number of candidates to return
+	 * @return a list of at most k candidates in rank order
+	 */
+	public List<String> topCandidates(int k) {
+
+		Octree node = currentNode();
+
+		if( node == null ) {
+			return Collections.emptyList();
+		}
+
+		String[] ranked = node.getRankedWords();
+		return Collections.unmodifiableList(Arrays.asList(ranked).subList(0, Math.max(0, Math.min(k, ranked.length))));
+	}
+
+	/**
+	 * This function returns the signature entered so far
+	 * @return the signature as a String
+	 */
+	public String getSignature() {
+		return signature.toString();
+	}
+
+	/**
+	 * This function returns the node for the signature entered so far
+	 * @return the current node, or null if the signature is empty or has no node
+	 */
+	public Octree currentNode() {
+		int depth = signature.length();
+		return (depth == 0) ? null : path[depth - 1];
+	}
+
+}
@@ -0,0 +1,403 @@
+package com.emmanuelafoakwah.tree_dictionary;
+
+import com.emmanuelafoakwah.shared.Dictionary;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidWord;
+import static com.emmanuelafoakwah.prototype.PredictivePrototype.wordToSignature;
+import static com.emmanuelafoakwah.shared.WordFrequencies.*;
+
+/**
+ * This class details the LOUDS Dictionary, a read-only succinct encoding of
+ * the signature tree used by the Tree Dictionary
+ *
+ * The shape of the tree is stored as a LOUDS (level-order unary degree sequence)
+ * bit vector: the nodes are numbered in breadth-first order and each node
+ * writes one 1 bit per child followed by a 0 bit, so the whole tree takes about
+ * two bits per node and no pointers
+ * - the children of node i start after the i-th 0 bit: select0(i) + 1
+ * - the 1 bit at position p is the node numbered rank1(p)
+ * The digit of each node is stored in 3 bits (see PackedIntArray)
+ *
+ * The words are sorted by signature so the words below any node form one
+ * contiguous range, each node stores the start and length of its range
+ * and the words themselves are held in a single UTF-8 byte array
+ * signatureToWords returns the same trimmed (partial) matches as the Tree
+ * Dictionary, they are decoded from the node's word range on each call
+ * rather than precomputed, trading query time for a much smaller heap
+ *
+ * @author Emmanuel Afoakwah
+ */
+public class LoudsDictionary implements Dictionary {
+
+	// Declaring String path
+	private String path;
+
+	// Total frequency of each word with a non-zero frequency (only used while building)
+	private Map<String, Integer> frequencies = new HashMap<String, Integer>();
+
+	// Tree shape and node properties (node 0 is the root)
+	private RankSelectBitVector louds;
+	private PackedIntArray labels;
+	private PackedIntArray rangeStarts;
+	private PackedIntArray rangeCounts;
+	private int nodeCount;
+
+	// Words sorted by signature, stored end to end as UTF-8
+	private byte[] wordBytes;
+	private PackedIntArray wordOffsets;
+	private PackedIntArray wordFrequencies;
+
+	/**
+	 * This is the constructor for the LOUDS dictionary
+	 * @param path is the string path to the dictionary text file
+	 */
+	public LoudsDictionary(String path) {
+		this.path = path;
+		storeLoudsDictionary(getWords());
+		frequencies = null;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signatureToWords(java.lang.String)
+	 * This function returns the words pertaining to a given signature
+	 * trimmed to the length of the signature (as the Tree Dictionary)
+	 */
+	@Override
+	public Set<String> signatureToWords(String signature) {
+
+		Set<String> out = new TreeSet<String>();
+		int node = findNode(signature);
+
+		if( node < 0 ) {
+			return out;
+		}
+
+		int start = rangeStarts.get(node);
+		int end = start + rangeCounts.get(node);
+
+		for(int w = start; w<end; w++) {
+			out.add(getWord(w).substring(0, signature.length()));
+		}
+		return out;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * This function returns the k highest ranked trimmed words for the signature,
+	 * a trimmed word is ranked by the highest frequency of the words it is trimmed from
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
+
+		int node = findNode(signature);
+
+		if( node < 0 || k <= 0 ) {
+			return Collections.emptyList();
+		}
+
+		int start = rangeStarts.get(node);
+		int end = start + rangeCounts.get(node);
+		Map<String, Integer> best = new HashMap<String, Integer>();
+
+		for(int w = start; w<end; w++) {
+			best.merge(getWord(w).substring(0, signature.length()), wordFrequencies.get(w), Math::max);
+		}
+
+		String[] ranked = rank(best.keySet(), best);
+		return Collections.unmodifiableList(Arrays.asList(ranked).subList(0, Math.min(k, ranked.length)));
+	}
+
+	/**
+	 * This function locates the node matching the given signature
+	 * by following the child with the matching digit at each level
+	 * @param signature is the signature to search for
+	 * @return the number of the matching node, or -1 if there is no such node
+	 */
+	public int findNode(String signature) {
+
+		// An empty signature does not match any node
+		if( signature.isEmpty() ) {
+			return -1;
+		}
+
+		int node = 0;
+
+		for(int i = 0; i<signature.length() && node >= 0; i++) {
+			node = getChild(node, signature.charAt(i));
+		}
+		return node;
+	}
+
+	/**
+	 * This function returns the child of a node for the given digit
+	 * The children are in ascending digit order, so the scan stops
+	 * as soon as it passes the digit
+	 * @param node is the number of the parent node
+	 * @param digit is the digit of the child ('2' to '9')
+	 * @return the number of the child node, or -1 if there is no such child
+	 */
+	public int getChild(int node, char digit) {
+
+		int label = Octree.childIndex(digit);
+
+		if( label < 0 ) {
+			return -1;
+		}
+
+		// The children of the node are the 1 bits after its 0 bit
+		int position = louds.select0(node) + 1;
+		int child = louds.rank1(position);
+
+		for(; position<louds.length() && louds.get(position); position++, child++) {
+			int childLabel = labels.get(child);
+
+			if( childLabel == label ) {
+				return child;
+			}else if( childLabel > label ) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * This function builds the succinct tree from the given words
+	 * @param words are the words to store
+	 */
+	public void storeLoudsDictionary(List<String> words) {
+
+		// Sort the distinct words by stored signature and then alphabetically
+		List<String[]> entries = new ArrayList<String[]>();
+
+		for(String word : new TreeSet<String>(words)) {
+			String signature = storedSignature(word);
+
+			if( !signature.isEmpty() ) {
+				entries.add(new String[] { signature, word });
+			}
+		}
+		Collections.sort(entries, (a, b) -> a[0].compareTo(b[0]));
+
+		int n = entries.size();
+		storeWords(entries);
+
+		// Build the level order sequence, numbering the nodes as they are discovered
+		// The super root "10" comes first so that node 0 (the root) is the first 1 bit
+		BitBuilder bits = new BitBuilder();
+		bits.append(true);
+		bits.append(false);
+
+		int[] label = new int[16];
+		int[] start = new int[16];
+		int[] count = new int[16];
+		int[] depth = new int[16];
+		int nodes = 1;
+		count[0] = n;
+
+		for(int node = 0; node<nodes; node++) {
+
+			int d = depth[node];
+			int j = start[node];
+			int end = start[node] + count[node];
+
+			// Words whose signature ends at this node sort first in its range
+			while( j < end && entries.get(j)[0].length() == d ) {
+				j++;
+			}
+
+			// Each run of words with the same next digit is one child
+			while( j < end ) {
+				char digit = entries.get(j)[0].charAt(d);
+				int k = j;
+
+				while( k < end && entries.get(k)[0].charAt(d) == digit ) {
+					k++;
+				}
+
+				if( nodes == label.length ) {
+					label = Arrays.copyOf(label, nodes * 2);
+					start = Arrays.copyOf(start, nodes * 2);
+					count = Arrays.copyOf(count, nodes * 2);
+					depth = Arrays.copyOf(depth, nodes * 2);
+				}
+				label[nodes] = Octree.childIndex(digit);
+				start[nodes] = j;
+				count[nodes] = k - j;
+				depth[nodes] = d + 1;
+				nodes++;
+
+				bits.append(true);
+				j = k;
+			}
+			bits.append(false);
+		}
+
+		nodeCount = nodes;
+		louds = new RankSelectBitVector(bits.bits, bits.length);
+		labels = new PackedIntArray(nodes, Octree.DEGREE - 1);
+		rangeStarts = new PackedIntArray(nodes, n);
+		rangeCounts = new PackedIntArray(nodes, n);
+
+		for(int node = 0; node<nodes; node++) {
+			labels.set(node, label[node]);
+			rangeStarts.set(node, start[node]);
+			rangeCounts.set(node, count[node]);
+		}
+	}
+
+	/**
+	 * This function stores the sorted words and their frequencies
+	 * @param entries are the signature and word pairs in sorted order
+	 */
+	private void storeWords(List<String[]> entries) {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		int[] offsets = new int[entries.size() + 1];
+		int maxFrequency = 0;
+
+		for(int w = 0; w<entries.size(); w++) {
+			byte[] word = entries.get(w)[1].getBytes(StandardCharsets.UTF_8);
+			bytes.write(word, 0, word.length);
+			offsets[w + 1] = offsets[w] + word.length;
+			maxFrequency = Math.max(maxFrequency, frequencies.getOrDefault(entries.get(w)[1], 0));
+		}
+
+		wordBytes = bytes.toByteArray();
+		wordOffsets = new PackedIntArray(offsets.length, wordBytes.length);
+		wordFrequencies = new PackedIntArray(entries.size(), maxFrequency);
+
+		for(int w = 0; w<offsets.length; w++) {
+			wordOffsets.set(w, offsets[w]);
+		}
+		for(int w = 0; w<entries.size(); w++) {
+			wordFrequencies.set(w, frequencies.getOrDefault(entries.get(w)[1], 0));
+		}
+	}
+
+	/**
+	 * This function returns the signature under which a word is stored
+	 * As in TreeDictionary.insertWord, the signature stops at the first
+	 * character without a digit (eg. a non a-z letter)
+	 * @param word is the word to convert
+	 * @return the signature of the word up to the first character without a digit
+	 */
+	private static String storedSignature(String word) {
+
+		String signature = wordToSignature(word);
+
+		for(int i = 0; i<signature.length(); i++) {
+			if( Octree.childIndex(signature.charAt(i)) < 0 ) {
+				return signature.substring(0, i);
+			}
+		}
+		return signature;
+	}
+
+	/**
+	 * This function decodes the word at the given index
+	 * @param index is the index of the word in signature order
+	 * @return the word
+	 */
+	private String getWord(int index) {
+		int from = wordOffsets.get(index);
+		return new String(wordBytes, from, wordOffsets.get(index + 1) - from, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * This function reads the contents of the input file line by line
+	 * adding the valid word on each line to the output arraylist
+	 * @return an arraylist of strings representing the words in the dictionary text file
+	 */
+	public ArrayList<String> getWords(){
+
+		// Declaring path to Dictionary text file
+		File file = new File(path);
+
+		// Declaring output ArrayList
+		ArrayList<String> out = new ArrayList<String>();
+
+		/*
+		 * Try catch block attempting to read the dictionary text file
+		 * If the file is not present, a message is printed
+		 * along with the stack trace
+		 */
+		try {
+			Scanner scan = new Scanner(file);
+
+			while(scan.hasNextLine()) {
+				String line = scan.nextLine();
+				String dictWord = parseWord(line);
+				int frequency = parseFrequency(line);
+
+				if( !dictWord.isEmpty() && isValidWord(dictWord) && frequency >= 0 ) {
+					out.add(dictWord);
+					addFrequency(frequencies, dictWord, frequency);
+				}
+			}
+
+		}catch(FileNotFoundException e) {
+			System.out.println("File not found ...");
+			e.printStackTrace();
+		}
+		return out;
+	}
+
+	/**
+	 * This function returns the number of words stored
+	 * @return the number of distinct words reachable by a signature
+	 */
+	public int getWordCount() {
+		return wordFrequencies.size();
+	}
+
+	/**
+	 * This function returns the number of nodes in the tree
+	 * @return the number of nodes including the root
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * This function estimates the size of the encoded dictionary
+	 * @return the number of bytes held by the tree and the words
+	 */
+	public long getSizeInBytes() {
+		long bits = louds.sizeInBits() + labels.sizeInBits() + rangeStarts.sizeInBits()
+				+ rangeCounts.sizeInBits() + wordOffsets.sizeInBits() + wordFrequencies.sizeInBits();
+		return bits / 8 + wordBytes.length;
+	}
+
+	/**
+	 * This class collects bits while the level order sequence is built
+	 */
+	private static class BitBuilder {
+
+		private long[] bits = new long[16];
+		private int length;
+
+		void append(boolean bit) {
+			if( (length >>> 6) == bits.length ) {
+				bits = Arrays.copyOf(bits, bits.length * 2);
+			}
+			if( bit ) {
+				bits[length >>> 6] |= 1L << length;
+			}
+			length++;
+		}
+	}
+
+}
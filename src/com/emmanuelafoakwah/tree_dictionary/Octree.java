@@ -1,6 +1,8 @@
 package com.emmanuelafoakwah.tree_dictionary;
 
+import com.emmanuelafoakwah.shared.SortedArraySet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.TreeSet;
 import java.util.Set;
 
@@ -11,17 +13,20 @@ import java.util.Set;
  * - A boolean indicating whether it is empty
  * - The string signature
  * - A set of words pertaining to the signature
- * - An arraylist of up to 8 child nodes
+ * - An array of 8 child slots, one per digit 2-9 (slot = digit - '2')
+ * - The distinct words trimmed to the signature length, ranked by frequency
+ * 		and as an immutable alphabetical set (precomputed when the tree is built)
  * 
  * The class has the following functionality (key functions):
- * 		1) Get the child for a given signature (getChild)
+ * 		1) Get the child for a given digit or signature (getChild)
  * 		2) Adding words to the set of words (addWord)
- * 		3) Adding a child to the arraylist of children (addChild)
+ * 		3) Adding a child to the slot for its digit (addChild)
  * 		4) Utility function to compare signatures for full or 
  * 			partial matches (signatureMatch)
  * 		5) Return the signature of the root node(getSignature)
  * 		6) Return the set of words for the root node (getWords)
  * 		7) Return the arraylist of children for the root node (getChildren)
+ * 		8) Update a single ranked trimmed word (putRankedWord, removeRankedWord)
  * 
  * @author Emmanuel Afoakwah
  */
@@ -31,7 +36,13 @@ public class Octree {
 	private boolean empty;
 	private String signature;
 	private Set<String> words;
-	private ArrayList<Octree> children;
+	private Octree[] children;
+	private String[] rankedWords = new String[0];
+	private int[] rankedFrequencies = new int[0];
+	private Set<String> trimmedWords = SortedArraySet.EMPTY;
+	
+	// Number of child slots (one for each of the digits 2-9)
+	public static final int DEGREE = 8;
 	
 	/**
 	 * This is the constructor for an empty tree
@@ -40,15 +51,15 @@ public class Octree {
 		this.empty = true;
 		this.signature = null;
 		this.words = new TreeSet<String>();
-		this.children = new ArrayList<Octree>();
+		this.children = new Octree[DEGREE];
 	}
 	
 	/**
 	 * This is the constructor for a master root node
 	 * (Master Root - no signature, no words, w/ children)
-	 * @param children is the arraylist of Octree children
+	 * @param children is the array of Octree children indexed by digit
 	 */
-	public Octree(ArrayList<Octree> children) {
+	public Octree(Octree[] children) {
 		this.empty = false;
 		this.signature = null;
 		this.words = new TreeSet<String>();
@@ -64,55 +75,61 @@ public class Octree {
 		this.empty = false;
 		this.signature = signature;
 		this.words = words;
-		this.children = new ArrayList<Octree>();
+		this.children = new Octree[DEGREE];
 	}
 	
 	/**
 	 * This is the constructor for a Full mid-tree Node
 	 * @param signature is the signature of the node
 	 * @param words is the Set of words for the node
-	 * @param children is the arraylist of Octree children
+	 * @param children is the array of Octree children indexed by digit
 	 */
-	public Octree(String signature, Set<String> words, ArrayList<Octree> children) {
+	public Octree(String signature, Set<String> words, Octree[] children) {
 		this.empty = false;
 		this.signature = signature;
 		this.words = words;
 		this.children = children;
 	}
 
+	/**
+	 * This function returns the slot index for a signature digit
+	 * @param digit is the signature digit ('2' to '9')
+	 * @return the index of the child slot, or -1 if the digit has no slot
+	 */
+	public static int childIndex(char digit) {
+		int index = digit - '2';
+		return (index >= 0 && index < DEGREE) ? index : -1;
+	}
+	
+	/**
+	 * This function returns the child stored under the given digit,
+	 * if there is no such child return null
+	 * @param digit is the signature digit of the child ('2' to '9')
+	 * @return the child Octree for the given digit
+	 */
+	public Octree getChild(char digit) {
+		int index = childIndex(digit);
+		return (index < 0) ? null : children[index];
+	}
+
 	/**
 	 * This function returns the child whose signature matches
 	 * the input string, if there is no such child return null
+	 * The child is selected by the digit of the input signature
+	 * one position below this node, so no string comparison is needed
 	 * @param signature is the signature to cross reference against the children
 	 * @return the child Octree matching the given input signature
 	 */
 	public Octree getChild(String signature) {
 		
-		// If there are no children return null
-		if(children.isEmpty()) {
-			return null;
-		}
+		// The children of this node are keyed by the next digit of the signature
+		int depth = (this.signature == null) ? 0 : this.signature.length();
 		
-		// Loop through the children and return the matching child
-		for(int i = 0; i<children.size(); i++) {
-			
-			// Calculate the match result via the signatureMatch helper function
-			int matchResult = signatureMatch(children.get(i).getSignature(), signature);
-			
-			/*
-			 * If there is a match at this index:
-			 * -return the child at this index
-			 */
-			if( matchResult > 0 ) {
-				return children.get(i);
-			}
+		// If the signature has no digit at this depth there is no matching child
+		if( signature == null || depth >= signature.length() ) {
+			return null;
 		}
-		/*
-		 * If the for loop does not hit a match
-		 * there are no matching children
-		 * therefore return null
-		 */
-		return null;
+		return getChild(signature.charAt(depth));
 	}
 	
 	/**
@@ -136,9 +153,9 @@ public class Octree {
 			return -1;
 		}
 
-		// Generate Char Arrays
-		char[] ref = reference.toCharArray();
-		char[] ch = check.toCharArray();
+		// Store the string lengths
+		int refLength = reference.length();
+		int chLength = check.length();
 
 		/*
 		 * Loop through the check string
@@ -148,20 +165,17 @@ public class Octree {
 		 * - There must be a partial match (one string is a substring of the other)
 		 * - Therefore return either 0 or 1 as appropriate (see javadoc comment)
 		 */
-		for(int i = 0; i<ch.length; i++) {
+		for(int i = 0; i<chLength; i++) {
 
-			Character c1 = ch[i];
-			Character c2 = ref[i];
-
-			// Check for non-matches
-			if( c1.equals(c2) == false) {
+			// Check for non-matches (compared as primitive chars)
+			if( check.charAt(i) != reference.charAt(i) ) {
 				return -1;
 			}
 
 			// Logic to handle partial matches
-			if( (i == ch.length-1) && (i < ref.length - 1) ) {
+			if( (i == chLength-1) && (i < refLength - 1) ) {
 				return 0;
-			}else if( (i < ch.length-1) && (i == ref.length - 1) ) {
+			}else if( (i < chLength-1) && (i == refLength - 1) ) {
 				return 1;
 			}
 		}
@@ -183,11 +197,44 @@ public class Octree {
 	}
 	
 	/**
-	 * This function adds a child to the arraylist of children at this node
-	 * @param add is the Octree to add to the arraylist of children
+	 * This function adds a child to the slot for the given digit at this node
+	 * replacing any child already stored in that slot
+	 * @param digit is the signature digit of the child ('2' to '9')
+	 * @param add is the Octree to add to the children
+	 */
+	public void addChild(char digit, Octree add) {
+		int index = childIndex(digit);
+		
+		if( index < 0 ) {
+			throw new IllegalArgumentException("No child slot for digit '" + digit + "'");
+		}
+		children[index] = add;
+	}
+	
+	/**
+	 * This function removes the child stored under the given digit
+	 * @param digit is the signature digit of the child ('2' to '9')
+	 * @return the removed child, or null if there was no child for the digit
+	 */
+	public Octree removeChild(char digit) {
+		int index = childIndex(digit);
+		
+		if( index < 0 ) {
+			return null;
+		}
+		Octree out = children[index];
+		children[index] = null;
+		return out;
+	}
+	
+	/**
+	 * This function adds a child to this node, using the last digit
+	 * of the child's signature to select its slot
+	 * @param add is the Octree to add to the children
 	 */
 	public void addChild(Octree add) {
-		children.add(add);
+		String childSignature = add.getSignature();
+		addChild(childSignature.charAt(childSignature.length() - 1), add);
 	}
 	
 	/**
@@ -215,11 +262,149 @@ public class Octree {
 	}
 
 	/**
-	 * This function returns the arraylist of children for this node
+	 * This function returns the words stored at this node trimmed to the 
+	 * length of its signature, in rank order (see WordFrequencies)
+	 * @return an array of the distinct trimmed words ranked by frequency
+	 */
+	public String[] getRankedWords() {
+		return rankedWords;
+	}
+	
+	/**
+	 * This function returns the words stored at this node trimmed to the
+	 * length of its signature, as an immutable alphabetical set
+	 * @return the set of distinct trimmed words
+	 */
+	public Set<String> getTrimmedWords() {
+		return trimmedWords;
+	}
+	
+	/**
+	 * This function returns the frequency of each ranked trimmed word
+	 * (the highest frequency of the words it is trimmed from)
+	 * @return an array of frequencies in the same order as getRankedWords
+	 */
+	public int[] getRankedFrequencies() {
+		return rankedFrequencies;
+	}
+	
+	/**
+	 * This function sets the trimmed words of this node
+	 * @param rankedWords is the array of distinct trimmed words ranked by frequency
+	 */
+	public void setRankedWords(String[] rankedWords) {
+		setRankedWords(rankedWords, new int[rankedWords.length]);
+	}
+	
+	/**
+	 * This function sets the trimmed words of this node and their frequencies
+	 * @param rankedWords is the array of distinct trimmed words ranked by frequency
+	 * @param rankedFrequencies is the frequency of each ranked word
+	 */
+	public void setRankedWords(String[] rankedWords, int[] rankedFrequencies) {
+		this.rankedWords = rankedWords;
+		this.rankedFrequencies = rankedFrequencies;
+		this.trimmedWords = new SortedArraySet(rankedWords);
+	}
+	
+	/**
+	 * This function adds a trimmed word to the ranked words of this node,
+	 * or moves it to the rank for its new frequency if it is already present
+	 * New arrays are created rather than modifying the current ones,
+	 * so sets and lists already returned to callers never change
+	 * @param trimmed is the trimmed word
+	 * @param frequency is the frequency to rank the trimmed word by
+	 */
+	public void putRankedWord(String trimmed, int frequency) {
+		
+		// Start from the ranked words without the trimmed word
+		int current = Arrays.asList(rankedWords).indexOf(trimmed);
+		String[] words = rankedWords;
+		int[] frequencies = rankedFrequencies;
+		
+		if( current >= 0 ) {
+			words = remove(words, current);
+			frequencies = remove(frequencies, current);
+		}
+		
+		// Find the first ranked word that should follow the trimmed word
+		int index = 0;
+		
+		while( index < words.length && (frequencies[index] > frequency 
+				|| (frequencies[index] == frequency && words[index].compareTo(trimmed) < 0)) ) {
+			index++;
+		}
+		
+		String[] outWords = new String[words.length + 1];
+		int[] outFrequencies = new int[words.length + 1];
+		
+		System.arraycopy(words, 0, outWords, 0, index);
+		System.arraycopy(frequencies, 0, outFrequencies, 0, index);
+		outWords[index] = trimmed;
+		outFrequencies[index] = frequency;
+		System.arraycopy(words, index, outWords, index + 1, words.length - index);
+		System.arraycopy(frequencies, index, outFrequencies, index + 1, words.length - index);
+		
+		setRankedWords(outWords, outFrequencies);
+	}
+	
+	/**
+	 * This function removes a trimmed word from the ranked words of this node
+	 * (new arrays are created, as putRankedWord)
+	 * @param trimmed is the trimmed word to remove
+	 * @return a boolean indicating whether the trimmed word was present
+	 */
+	public boolean removeRankedWord(String trimmed) {
+		
+		int current = Arrays.asList(rankedWords).indexOf(trimmed);
+		
+		if( current < 0 ) {
+			return false;
+		}
+		setRankedWords(remove(rankedWords, current), remove(rankedFrequencies, current));
+		return true;
+	}
+	
+	/**
+	 * This function returns a copy of an array without the element at the given index
+	 * @param array is the array to copy
+	 * @param index is the index of the element to leave out
+	 * @return the shorter copy
+	 */
+	private static String[] remove(String[] array, int index) {
+		String[] out = new String[array.length - 1];
+		System.arraycopy(array, 0, out, 0, index);
+		System.arraycopy(array, index + 1, out, index, out.length - index);
+		return out;
+	}
+	
+	/**
+	 * This function returns a copy of an array without the element at the given index
+	 * @param array is the array to copy
+	 * @param index is the index of the element to leave out
+	 * @return the shorter copy
+	 */
+	private static int[] remove(int[] array, int index) {
+		int[] out = new int[array.length - 1];
+		System.arraycopy(array, 0, out, 0, index);
+		System.arraycopy(array, index + 1, out, index, out.length - index);
+		return out;
+	}
+
+	/**
+	 * This function returns the children of this node in digit order
+	 * (empty slots are skipped)
 	 * @return an arraylist of children for this node
 	 */
 	public ArrayList<Octree> getChildren() {
-		return children;
+		ArrayList<Octree> out = new ArrayList<Octree>();
+		
+		for(Octree child : children) {
+			if( child != null ) {
+				out.add(child);
+			}
+		}
+		return out;
 	}
 
 	/* (non-Javadoc)
@@ -228,7 +413,7 @@ public class Octree {
 	 */
 	@Override
 	public String toString() {
-		return "\n" + "Octree [empty=" + empty + ", signature=" + signature + ", words=" + words + ", children=" + children
+		return "\n" + "Octree [empty=" + empty + ", signature=" + signature + ", words=" + words + ", children=" + getChildren()
 				+ "]";
 	}
 
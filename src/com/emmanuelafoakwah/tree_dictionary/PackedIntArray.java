@@ -0,0 +1,85 @@
+package com.emmanuelafoakwah.tree_dictionary;
+
+/**
+ * This class is a fixed size array of non-negative integers packed with
+ * the minimum number of bits per value needed for the largest value
+ * eg.) digit labels 0-7 take 3 bits each instead of 32
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class PackedIntArray {
+
+	// Declaring array properties
+	private final long[] bits;
+	private final int bitsPerValue;
+	private final int size;
+	private final long mask;
+
+	/**
+	 * This is the constructor for an array of zeros
+	 * @param size is the number of values
+	 * @param maxValue is the largest value that will be stored
+	 */
+	public PackedIntArray(int size, long maxValue) {
+		this.size = size;
+		this.bitsPerValue = Math.max(1, 64 - Long.numberOfLeadingZeros(maxValue));
+		this.mask = (bitsPerValue == 64) ? -1L : (1L << bitsPerValue) - 1;
+		this.bits = new long[(int) (((long) size * bitsPerValue + 63) >>> 6)];
+	}
+
+	/**
+	 * This function returns the value at the given index
+	 * @param index is the index of the value
+	 * @return the value
+	 */
+	public int get(int index) {
+		
+		long bit = (long) index * bitsPerValue;
+		int word = (int) (bit >>> 6);
+		int offset = (int) (bit & 63);
+		
+		long value = bits[word] >>> offset;
+		
+		// Take the remaining bits from the next word if the value straddles two words
+		if( offset + bitsPerValue > 64 ) {
+			value |= bits[word + 1] << (64 - offset);
+		}
+		return (int) (value & mask);
+	}
+
+	/**
+	 * This function stores a value at the given index
+	 * @param index is the index of the value
+	 * @param value is the value to store (at most the maximum value)
+	 */
+	public void set(int index, long value) {
+		
+		long bit = (long) index * bitsPerValue;
+		int word = (int) (bit >>> 6);
+		int offset = (int) (bit & 63);
+		
+		bits[word] = (bits[word] & ~(mask << offset)) | ((value & mask) << offset);
+		
+		if( offset + bitsPerValue > 64 ) {
+			int shift = 64 - offset;
+			bits[word + 1] = (bits[word + 1] & ~(mask >>> shift)) | ((value & mask) >>> shift);
+		}
+	}
+
+	/**
+	 * This function returns the number of values
+	 * @return the size of the array
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * This function returns the number of bits used by the values
+	 * @return the storage size in bits
+	 */
+	public long sizeInBits() {
+		return (long) bits.length * 64;
+	}
+
+}
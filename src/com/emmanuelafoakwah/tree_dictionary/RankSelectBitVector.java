@@ -0,0 +1,141 @@
+package com.emmanuelafoakwah.tree_dictionary;
+
+import java.util.Arrays;
+
+/**
+ * This class is an immutable bit vector supporting rank and select queries
+ * - rank1(i): the number of 1 bits before position i
+ * - select0(j): the position of the j-th 0 bit (counting from 0)
+ * 
+ * A count of the 1 bits before every block of 512 bits is stored alongside
+ * the bits (an overhead of 1/16), ranks inside a block are counted with
+ * Long.bitCount and select binary searches the block counts first
+ * 
+ * @author Emmanuel Afoakwah
+ */
+public class RankSelectBitVector {
+
+	// Number of longs per rank block (512 bits)
+	private static final int BLOCK_WORDS = 8;
+
+	// Declaring bit vector properties
+	private final long[] bits;
+	private final int length;
+	private final int[] blockRanks;
+
+	/**
+	 * This is the constructor for a bit vector over the given bits
+	 * @param bits holds the bits (bit i is bit i % 64 of bits[i / 64])
+	 * @param length is the number of bits in use
+	 */
+	public RankSelectBitVector(long[] bits, int length) {
+		this.bits = Arrays.copyOf(bits, (length + 63) >>> 6);
+		this.length = length;
+		this.blockRanks = new int[this.bits.length / BLOCK_WORDS + 1];
+		
+		// Count the 1 bits before each block
+		int ones = 0;
+		
+		for(int w = 0; w<this.bits.length; w++) {
+			if( w % BLOCK_WORDS == 0 ) {
+				blockRanks[w / BLOCK_WORDS] = ones;
+			}
+			ones += Long.bitCount(this.bits[w]);
+		}
+		
+		// Closing count for a rank at the very end of the last full block
+		if( this.bits.length % BLOCK_WORDS == 0 ) {
+			blockRanks[blockRanks.length - 1] = ones;
+		}
+	}
+
+	/**
+	 * This function returns the bit at the given position
+	 * @param position is the bit position
+	 * @return a boolean indicating whether the bit is 1
+	 */
+	public boolean get(int position) {
+		return (bits[position >>> 6] & (1L << position)) != 0;
+	}
+
+	/**
+	 * This function counts the 1 bits before the given position
+	 * @param position is the bit position (0 to length)
+	 * @return the number of 1 bits in positions [0, position)
+	 */
+	public int rank1(int position) {
+		
+		int word = position >>> 6;
+		int block = word / BLOCK_WORDS;
+		int out = blockRanks[block];
+		
+		for(int w = block * BLOCK_WORDS; w<word; w++) {
+			out += Long.bitCount(bits[w]);
+		}
+		
+		// Count the bits of the last word below the position
+		if( (position & 63) != 0 ) {
+			out += Long.bitCount(bits[word] & ((1L << position) - 1));
+		}
+		return out;
+	}
+
+	/**
+	 * This function finds the position of the j-th 0 bit
+	 * @param j is the number of the 0 bit (counting from 0)
+	 * @return the position of the 0 bit, or -1 if there are not enough 0 bits
+	 */
+	public int select0(int j) {
+		
+		// Find the last block with at most j zeros before it
+		int low = 0;
+		int high = (bits.length - 1) / BLOCK_WORDS;
+		
+		while( low < high ) {
+			int mid = (low + high + 1) >>> 1;
+			
+			if( mid * BLOCK_WORDS * 64 - blockRanks[mid] <= j ) {
+				low = mid;
+			}else {
+				high = mid - 1;
+			}
+		}
+		
+		int remaining = j - (low * BLOCK_WORDS * 64 - blockRanks[low]);
+		
+		// Scan the words of the block for the word holding the 0 bit
+		for(int w = low * BLOCK_WORDS; w<bits.length; w++) {
+			long zeros = ~bits[w];
+			int count = Long.bitCount(zeros);
+			
+			if( remaining < count ) {
+				
+				// Clear the lower 0 bits until the wanted one is the lowest
+				for(int i = 0; i<remaining; i++) {
+					zeros &= zeros - 1;
+				}
+				int position = (w << 6) + Long.numberOfTrailingZeros(zeros);
+				return (position < length) ? position : -1;
+			}
+			remaining -= count;
+		}
+		return -1;
+	}
+
+	/**
+	 * This function returns the number of bits in the vector
+	 * @return the length of the vector
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * This function returns the number of bits used including the rank blocks
+	 * @return the storage size in bits
+	 */
+	public long sizeInBits() {
+		return (long) bits.length * 64 + (long) blockRanks.length * 32;
+	}
+
+}
@@ -1,11 +1,14 @@
 package com.emmanuelafoakwah.tree_dictionary;
 
+import com.emmanuelafoakwah.metrics.MetricsRegistry;
 import com.emmanuelafoakwah.shared.Dictionary;
-import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidSignature;
+import com.emmanuelafoakwah.shared.QueryStream;
 import static com.emmanuelafoakwah.shared.Constants.DICTIONARY_PATH;
 
 /**
  * This command line program runs the Tree Sigs2Words() function
+ * for the signatures given as arguments, read from standard input ("-")
+ * or read from a file ("-f path"), see QueryStream
  * @author Emmanuel Afoakwah
  *
  */
@@ -14,14 +17,9 @@ public class Sigs2WordsTree {
 	public static void main(String[] args) {
 
 		// Creating an instance of the dictionary
-		Dictionary td = new TreeDictionary(DICTIONARY_PATH);
+		Dictionary td = MetricsRegistry.instrument("tree", new TreeDictionary(DICTIONARY_PATH));
 		
-		// Loop through the args array returning matching words with the given signature
-		for(int i = 0; i<args.length; i++) {
-			
-			if(isValidSignature(args[i])) {
-				System.out.println(args[i] + ": " + td.signatureToWords(args[i]));
-			}
-		}
+		// Answer the signatures given as arguments, standard input or files
+		new QueryStream(td).run(args);
 	}
 }
@@ -1,15 +1,29 @@
 package com.emmanuelafoakwah.tree_dictionary;
 
-import com.emmanuelafoakwah.shared.Dictionary;
+import com.emmanuelafoakwah.metrics.MemoryEstimate;
+import com.emmanuelafoakwah.metrics.DictionaryLoadEvent;
+import com.emmanuelafoakwah.metrics.MetricsRegistry;
+import com.emmanuelafoakwah.shared.MutableDictionary;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.TreeSet;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.stream.Collectors;
 import static com.emmanuelafoakwah.prototype.PredictivePrototype.isValidWord;
 import static com.emmanuelafoakwah.prototype.PredictivePrototype.wordToSignature;
-import com.emmanuelafoakwah.tree_dictionary.Octree.*;
+import static com.emmanuelafoakwah.shared.Constants.PARALLEL_BUILD_THRESHOLD;
+import static com.emmanuelafoakwah.shared.Dictionary.sortedSignatures;
+import static com.emmanuelafoakwah.shared.SignatureCodec.digitOf;
+import static com.emmanuelafoakwah.shared.WordFrequencies.*;
 
 /**
  * This class details the Tree Dictionary which is comprised of Octrees
@@ -17,27 +31,66 @@ import com.emmanuelafoakwah.tree_dictionary.Octree.*;
  * returns the set of words for a given dictionary pertaining to 
  * the input signature
  * 
+ * Words can be added and removed after the tree is built (see MutableDictionary),
+ * updating only the nodes on the path of the word's signature
+ * 
  * @author Emmanuel Afoakwah
  */
-public class TreeDictionary implements Dictionary {
+public class TreeDictionary implements MutableDictionary {
 	
 	// Declaring String path
 	private String path;
 		
-	// ArrayList to store dictionary
+	// ArrayList to store the words loaded from the dictionary file
 	ArrayList<String> words = new ArrayList<String>();
 	
 	// Octree to store Dictionary (start with empty)
 	Octree octreeDictionary = new Octree();
+	
+	// Total frequency of each word with a non-zero frequency
+	Map<String, Integer> frequencies = new HashMap<String, Integer>();
+	
+	// Number of lines rejected by the last load (invalid word or frequency)
+	private int wordsRejected;
 
 	/**
 	 * This is the constructor for the tree dictionary
 	 * @param path is the string path to the dictionary text file
 	 */
 	public TreeDictionary(String path) {
+		long start = MetricsRegistry.ENABLED ? System.nanoTime() : 0;
+		
 		this.path = path;
+		
+		// Each phase of the load is recorded as a flight recorder event
+		DictionaryLoadEvent event = DictionaryLoadEvent.start(this, DictionaryLoadEvent.READ, path);
 		words = getWords();
+		event.finish(words.size());
+		
+		event = DictionaryLoadEvent.start(this, DictionaryLoadEvent.BUILD, path);
+		octreeDictionary = storeTreeDictionary();
+		event.finish(words.size());
+		
+		event = DictionaryLoadEvent.start(this, DictionaryLoadEvent.RANK, path);
+		storeRankedWords(octreeDictionary);
+		event.finish(words.size());
+		
+		if( MetricsRegistry.ENABLED ) {
+			MetricsRegistry.recordLoad("tree", start, words.size(), wordsRejected, estimateRetainedBytes());
+		}
+	}
+	
+	/**
+	 * This is the constructor for a tree dictionary of the given words
+	 * (eg. one shard of a ShardedDictionary) rather than a dictionary text file
+	 * @param words are the valid, lower case words to store
+	 * @param frequencies is the total frequency of each word with a non-zero frequency
+	 */
+	public TreeDictionary(List<String> words, Map<String, Integer> frequencies) {
+		this.words = new ArrayList<String>(words);
+		this.frequencies = new HashMap<String, Integer>(frequencies);
 		octreeDictionary = storeTreeDictionary();
+		storeRankedWords(octreeDictionary);
 	}
 	
 	/* (non-Javadoc)
@@ -45,73 +98,187 @@ public class TreeDictionary implements Dictionary {
 	 * This function returns the set of words pertaining to a given signature 
 	 * as defined by the Octree stored within this Tree Dictionary
 	 * The words are trimmed to match the length of the input string
+	 * Each node holds its trimmed words precomputed when the tree is built,
+	 * so this returns the node's immutable set rather than building a new one
 	 */
 	@Override
 	public Set<String> signatureToWords(String signature) {
 		
-		// Store matching whole words 
-		Set<String> wordMatches = searchNodes(signature, octreeDictionary); 
+		// Find the node matching the signature
+		Octree node = findNode(signature, octreeDictionary);
 		
-		// Declare Set to hold trimmed words
-		Set<String> out = new TreeSet<String>();
+		// Return the precomputed trimmed words (or an empty set if there is no node)
+		if( node == null ) {
+			return new TreeSet<String>();
+		}
+		return node.getTrimmedWords();
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#topWords(java.lang.String, int)
+	 * This function returns the k highest ranked trimmed words at the node
+	 * matching the signature, these are ranked when the dictionary is built
+	 */
+	@Override
+	public List<String> topWords(String signature, int k) {
 		
-		// Store the length of the input signature
-		int sigLength = signature.length();
+		Octree node = findNode(signature, octreeDictionary);
 		
-		/*
-		 * Loop through the set of matching whole words
-		 * add each word to the output set after trimming to 
-		 * the appropriate size
-		 */
-		for(String word : wordMatches) {
-			out.add(word.substring(0, sigLength));
+		if( node == null ) {
+			return Collections.emptyList();
 		}
 		
-		// Return the trimmed output
+		String[] ranked = node.getRankedWords();
+		return Collections.unmodifiableList(Arrays.asList(ranked).subList(0, Math.max(0, Math.min(k, ranked.length))));
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.Dictionary#signaturesToWords(java.util.Collection)
+	 * The signatures are looked up in sorted order, keeping the path of nodes
+	 * of the previous signature, so the nodes of a prefix shared with the
+	 * previous signature are not visited again (as in a KeystrokeSession)
+	 */
+	@Override
+	public Map<String, Set<String>> signaturesToWords(Collection<String> signatures) {
+		
+		String[] sorted = sortedSignatures(signatures);
+		Map<String, Set<String>> out = new HashMap<String, Set<String>>(sorted.length * 4 / 3 + 1);
+		
+		// path[i] is the node of the first i+1 digits of the previous signature
+		Octree[] path = new Octree[16];
+		int depth = 0;
+		String previous = "";
+		
+		for(String signature : sorted) {
+			
+			// Resume below the deepest node shared with the previous signature
+			int length = Math.min(depth, commonPrefixLength(previous, signature));
+			Octree node = (length == 0) ? octreeDictionary : path[length - 1];
+			
+			while( length < signature.length() ) {
+				Octree child = node.getChild(signature.charAt(length));
+				
+				if( child == null ) {
+					break;
+				}
+				if( length == path.length ) {
+					path = Arrays.copyOf(path, length * 2);
+				}
+				path[length++] = child;
+				node = child;
+			}
+			depth = length;
+			previous = signature;
+			
+			// Only a node for the whole signature has words
+			if( signature.isEmpty() || length < signature.length() ) {
+				out.put(signature, new TreeSet<String>());
+			}else {
+				out.put(signature, node.getTrimmedWords());
+			}
+		}
 		return out;
 	}
 	
 	/**
-	 * This function recursively searches an Octree to locate the node
+	 * This function returns the length of the common prefix of two strings
+	 * @param a is the first string
+	 * @param b is the second string
+	 * @return the number of leading characters the strings share
+	 */
+	private static int commonPrefixLength(String a, String b) {
+		int length = Math.min(a.length(), b.length());
+		int i = 0;
+		
+		while( i < length && a.charAt(i) == b.charAt(i) ) {
+			i++;
+		}
+		return i;
+	}
+	
+	/**
+	 * This function returns the whole words whose signature starts with
+	 * the given signature (the words the signature could be completed to)
+	 * @param signature is the signature typed so far
+	 * @return an unmodifiable set of the untrimmed words, empty if there are none
+	 */
+	public Set<String> completions(String signature) {
+		
+		Octree node = findNode(signature, octreeDictionary);
+		
+		if( node == null ) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(node.getWords());
+	}
+	
+	/**
+	 * This function starts a new keystroke session on this dictionary
+	 * for entering a signature one digit at a time
+	 * @return a new KeystrokeSession with an empty signature
+	 */
+	public KeystrokeSession newSession() {
+		return new KeystrokeSession(this);
+	}
+	
+	/**
+	 * This function searches an Octree to locate the node
+	 * with matching signature for the given signature and Octree
+	 * @param signature is the signature to search for
+	 * @param tree is the Octree to search
+	 * @return the matching node, or null if there is no such node
+	 */
+	public Octree findNode(String signature, Octree tree) {
+		
+		// An empty signature does not match any node
+		if( signature.isEmpty() ) {
+			return null;
+		}
+		
+		// Walk down one level per digit of the signature
+		Octree node = tree;
+		
+		for(int i = 0; i<signature.length() && node != null; i++) {
+			node = node.getChild(signature.charAt(i));
+		}
+		return node;
+	}
+	
+	/**
+	 * This function searches an Octree to locate the node
 	 * with matching signature for the given signature and Octree
 	 * and returns the set of words at the matching node
+	 * Each digit of the signature selects the next child directly
+	 * from its slot, so the cost grows with the signature length only
 	 * @param signature is the signature to search for
 	 * @param tree is the Octree to search
 	 * @return the set of words stored at the matching nodes
 	 */
 	public Set<String> searchNodes(String signature, Octree tree){
 		
-		// Store the signature at the current node
-		String nodeSignature = tree.getSignature();
+		Octree node = findNode(signature, tree);
 		
-		/*
-		 * If the tree has no matching children return an empty TreeSet
-		 * else check for full or partial matches
-		 * Full match -> return words at this node 
-		 * Partial match -> recursively call this function on the matching child Octree
-		 */
-		if( tree.getChild(signature)==null ) {
+		// If no node matches return an empty TreeSet
+		if( node == null ) {
 			return new TreeSet<String>();
-		}else {
-			// Calculate match result via signatureMatch helper function
-			int matchResult = signatureMatch( tree.getChild(signature).getSignature() , signature);
-			
-			// Check for full or partial match
-			if( matchResult  == 2 ) {
-				return tree.getChild(signature).getWords();
-			}else {
-				return searchNodes(signature, tree.getChild(signature));
-			}
 		}
+		return node.getWords();
 	}
 	
 	/**
 	 * This function stores the tree dictionary as defined 
 	 * by the dictionary arraylist
+	 * Large dictionaries are built in parallel (see storeTreeDictionaryParallel)
 	 * @return an Octree storing the dictionary words
 	 */
 	public Octree storeTreeDictionary() {
 		
+		if( words.size() >= PARALLEL_BUILD_THRESHOLD ) {
+			return storeTreeDictionaryParallel();
+		}
+		
 		Octree out = new Octree();
 		
 		for(String word : words) {
@@ -120,40 +287,299 @@ public class TreeDictionary implements Dictionary {
 		return out;
 	}
 	
+	/**
+	 * This function stores the tree dictionary with one subtree per leading digit,
+	 * each subtree is built by its own task on the common ForkJoinPool and
+	 * the finished subtrees are attached to the root
+	 * The subtrees share no nodes, so the tasks do not need to synchronize
+	 * @return an Octree storing the dictionary words
+	 */
+	public Octree storeTreeDictionaryParallel() {
+		
+		Octree out = new Octree();
+		Octree[] subtrees = new Octree[Octree.DEGREE];
+		
+		Arrays.stream(digits()).parallel().forEach(digit -> {
+			
+			Octree subtree = new Octree(String.valueOf(digit), new TreeSet<String>());
+			
+			// Insert the words whose signature starts with this digit
+			for(String word : words) {
+				if( !word.isEmpty() && digitOf(word.charAt(0)) == digit ) {
+					subtree.addWord(word);
+					insertWord(word, subtree);
+				}
+			}
+			subtrees[Octree.childIndex(digit)] = subtree;
+		});
+		
+		for(Octree subtree : subtrees) {
+			if( !subtree.getWords().isEmpty() ) {
+				out.addChild(subtree);
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * This function returns the digits with a child slot in the Octree
+	 * @return an array of the digits '2' to '9'
+	 */
+	private static Character[] digits() {
+		
+		Character[] out = new Character[Octree.DEGREE];
+		
+		for(int i = 0; i<out.length; i++) {
+			out[i] = (char) ('2' + i);
+		}
+		return out;
+	}
+	
+	/**
+	 * This function precomputes the trimmed words of every node in the tree,
+	 * deduplicated and ranked by frequency
+	 * A trimmed word is ranked by the highest frequency of the words it is trimmed from
+	 * Large dictionaries rank the subtree of each leading digit in parallel
+	 * @param tree is the Octree to rank
+	 */
+	public void storeRankedWords(Octree tree) {
+		
+		if( words.size() >= PARALLEL_BUILD_THRESHOLD ) {
+			
+			// Each subtree interns its own words, the subtrees share no trimmed words
+			tree.getChildren().parallelStream().forEach(child -> {
+				Map<String, String> interned = new HashMap<String, String>();
+				
+				for(String word : child.getWords()) {
+					interned.put(word, word);
+				}
+				storeRankedWords(child, interned);
+			});
+			return;
+		}
+		
+		// Trimmed words equal to a whole word share the word's String
+		Map<String, String> interned = new HashMap<String, String>();
+		
+		for(String word : words) {
+			interned.put(word, word);
+		}
+		
+		for(Octree child : tree.getChildren()) {
+			storeRankedWords(child, interned);
+		}
+	}
+	
+	/**
+	 * This function ranks the trimmed words of the given node and every node below it
+	 * @param node is the Octree node to rank
+	 * @param interned maps each String to the single instance shared by the tree
+	 */
+	private void storeRankedWords(Octree node, Map<String, String> interned) {
+		
+		int sigLength = node.getSignature().length();
+		Map<String, Integer> best = new HashMap<String, Integer>();
+		
+		for(String word : node.getWords()) {
+			String trimmed = interned.computeIfAbsent(word.substring(0, sigLength), t -> t);
+			best.merge(trimmed, frequencies.getOrDefault(word, 0), Math::max);
+		}
+		
+		String[] ranked = rank(best.keySet(), best);
+		int[] rankedFrequencies = new int[ranked.length];
+		
+		for(int i = 0; i<ranked.length; i++) {
+			rankedFrequencies[i] = best.get(ranked[i]);
+		}
+		node.setRankedWords(ranked, rankedFrequencies);
+		
+		for(Octree child : node.getChildren()) {
+			storeRankedWords(child, interned);
+		}
+	}
+	
 	/**
 	 * This function inserts the input word into the given tree
+	 * The word is added to the node for every prefix of its signature,
+	 * creating any missing nodes on the way down
+	 * If the signature contains a digit without a child slot
+	 * (eg. a space for a non a-z letter) the word is stored down to that point
 	 * @param word to be inserted
 	 * @param tree to insert the word into
 	 * @return an Octree with the word inserted
 	 */
 	public Octree insertWord(String word, Octree tree) {
 		
-		String nodeSignature = tree.getSignature();
 		String wordSignature = wordToSignature(word);
-
-		int sigTargetLength = signatureTargetLength(tree);
-		String partialSig = wordSignature.substring(0, sigTargetLength);
-		//System.out.println(partialSig);
-		
-		if( tree.getChild(wordSignature)==null ) {
-			//System.out.println("No child match");
-			Octree addTree = new Octree(partialSig, new TreeSet<String>() );
-			tree.addChild(addTree);
-			return insertWord(word, tree);
-		}else {
+		
+		// Start below the given node
+		int depth = signatureTargetLength(tree);
+		Octree node = tree;
+		
+		for(int i = depth - 1; i<wordSignature.length(); i++) {
 			
-			// Check for full or partial match
-			int matchResult = signatureMatch( tree.getChild(wordSignature).getSignature() , wordSignature);
-			//System.out.println("Match Result: " + matchResult);
+			char digit = wordSignature.charAt(i);
 			
-			if(matchResult == 2) {
-				tree.getChild(wordSignature).addWord(word);
-				return tree;
-			}else {
-				tree.getChild(wordSignature).addWord(word);
-				return insertWord(word, tree.getChild(wordSignature));
+			// Stop if the digit cannot be stored in the tree
+			if( Octree.childIndex(digit) < 0 ) {
+				break;
+			}
+			
+			// Create the child for this digit if it is not present yet
+			Octree child = node.getChild(digit);
+			
+			if( child == null ) {
+				child = new Octree(wordSignature.substring(0, i + 1), new TreeSet<String>());
+				node.addChild(digit, child);
+			}
+			
+			child.addWord(word);
+			node = child;
+		}
+		return tree;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.MutableDictionary#addWord(java.lang.String)
+	 * This function inserts the word into the nodes for its signature and adds
+	 * its trimmed word to the ranked words of each node that does not have it yet
+	 */
+	@Override
+	public synchronized boolean addWord(String word) {
+		
+		String dictWord = word.toLowerCase();
+		
+		if( dictWord.isEmpty() || !isValidWord(dictWord) ) {
+			return false;
+		}
+		
+		String wordSignature = wordToSignature(dictWord);
+		int length = storedLength(wordSignature);
+		
+		// Words without a digit for their first letter cannot be stored
+		if( length == 0 ) {
+			return false;
+		}
+		
+		// The deepest node for the word holds it if it is already present
+		Octree deepest = findNode(wordSignature.substring(0, length), octreeDictionary);
+		
+		if( deepest != null && deepest.getWords().contains(dictWord) ) {
+			return false;
+		}
+		
+		insertWord(dictWord, octreeDictionary);
+		
+		// A new word has no frequency, so only missing trimmed words change the ranking
+		Octree node = octreeDictionary;
+		
+		for(int i = 0; i<length; i++) {
+			node = node.getChild(wordSignature.charAt(i));
+			String trimmed = dictWord.substring(0, i + 1);
+			
+			if( !node.getTrimmedWords().contains(trimmed) ) {
+				node.putRankedWord(trimmed, frequencies.getOrDefault(dictWord, 0));
+			}
+		}
+		return true;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see com.emmanuelafoakwah.shared.MutableDictionary#removeWord(java.lang.String)
+	 * This function removes the word from the nodes for its signature, deepest first
+	 * A trimmed word is only removed from a node if no other word at the node
+	 * shares it, otherwise it is re-ranked by the frequencies of the words left
+	 * Nodes left without words are detached from the tree
+	 */
+	@Override
+	public synchronized boolean removeWord(String word) {
+		
+		String dictWord = word.toLowerCase();
+		String wordSignature = wordToSignature(dictWord);
+		int length = storedLength(wordSignature);
+		
+		if( length == 0 ) {
+			return false;
+		}
+		
+		// Collect the path of nodes for the word
+		Octree[] path = new Octree[length + 1];
+		path[0] = octreeDictionary;
+		
+		for(int i = 0; i<length; i++) {
+			path[i + 1] = path[i].getChild(wordSignature.charAt(i));
+			
+			if( path[i + 1] == null ) {
+				return false;
+			}
+		}
+		
+		if( !path[length].getWords().contains(dictWord) ) {
+			return false;
+		}
+		
+		Integer removedFrequency = frequencies.remove(dictWord);
+		
+		for(int depth = length; depth>=1; depth--) {
+			
+			Octree node = path[depth];
+			node.getWords().remove(dictWord);
+			
+			// Detach nodes with no words left
+			if( node.getWords().isEmpty() ) {
+				path[depth - 1].removeChild(wordSignature.charAt(depth - 1));
+				continue;
 			}
+			
+			String trimmed = dictWord.substring(0, depth);
+			Set<String> sharing = wordsWithPrefix(node.getWords(), trimmed);
+			
+			if( sharing.isEmpty() ) {
+				node.removeRankedWord(trimmed);
+			}else if( removedFrequency != null ) {
+				
+				// The trimmed word may have been ranked by the removed word's frequency
+				int best = 0;
+				
+				for(String other : sharing) {
+					best = Math.max(best, frequencies.getOrDefault(other, 0));
+				}
+				node.putRankedWord(trimmed, best);
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * This function returns the number of leading digits of a signature
+	 * that are stored in the tree (as insertWord, up to the first digit without a slot)
+	 * @param signature is the signature of a word
+	 * @return the length of the stored part of the signature
+	 */
+	private static int storedLength(String signature) {
+		
+		int length = 0;
+		
+		while( length < signature.length() && Octree.childIndex(signature.charAt(length)) >= 0 ) {
+			length++;
+		}
+		return length;
+	}
+	
+	/**
+	 * This function returns the words of a node that start with the given prefix
+	 * @param words is the set of words at a node
+	 * @param prefix is the prefix to match
+	 * @return the words starting with the prefix (a view for sorted sets)
+	 */
+	private static Set<String> wordsWithPrefix(Set<String> words, String prefix) {
+		
+		if( words instanceof NavigableSet ) {
+			return ((NavigableSet<String>) words).subSet(prefix, true, prefix + Character.MAX_VALUE, false);
 		}
+		return words.stream().filter(w -> w.startsWith(prefix)).collect(Collectors.toSet());
 	}
 	
 	/**
@@ -192,10 +618,9 @@ public class TreeDictionary implements Dictionary {
 			return -1;
 		}
 
-		// Generate Char Arrays
-		char[] ref = reference.toCharArray();
-		char[] ch = check.toCharArray();
-
+		// Store the string lengths
+		int refLength = reference.length();
+		int chLength = check.length();
 
 		/*
 		 * Loop through the check string
@@ -205,20 +630,17 @@ public class TreeDictionary implements Dictionary {
 		 * - There must be a partial match (one string is a substring of the other)
 		 * - Therefore return either 0 or 1 as appropriate (see javadoc comment)
 		 */
-		for(int i = 0; i<ch.length; i++) {
-
-			Character c1 = ch[i];
-			Character c2 = ref[i];
+		for(int i = 0; i<chLength; i++) {
 
-			// Check for non-matches
-			if( c1.equals(c2) == false) {
+			// Check for non-matches (compared as primitive chars)
+			if( check.charAt(i) != reference.charAt(i) ) {
 				return -1;
 			}
 
 			// Logic to handle partial matches
-			if( (i == ch.length-1) && (i < ref.length - 1) ) {
+			if( (i == chLength-1) && (i < refLength - 1) ) {
 				return 0;
-			}else if( (i < ch.length-1) && (i == ref.length - 1) ) {
+			}else if( (i < chLength-1) && (i == refLength - 1) ) {
 				return 1;
 			}
 		}
@@ -232,6 +654,53 @@ public class TreeDictionary implements Dictionary {
 	}
 
 		
+	/**
+	 * This function returns the number of lines rejected by the last load
+	 * @return the number of lines with an invalid word or frequency
+	 */
+	public int getWordsRejected() {
+		return wordsRejected;
+	}
+	
+	/**
+	 * This function estimates the heap retained by the dictionary (see MemoryEstimate)
+	 * @return the estimated number of bytes
+	 */
+	public long estimateRetainedBytes() {
+		
+		// The words arraylist and the words themselves
+		long out = MemoryEstimate.referenceArrayBytes(words.size());
+		
+		for(String word : words) {
+			out += MemoryEstimate.stringBytes(word);
+		}
+		return out + estimateNodeBytes(octreeDictionary) + frequencies.size() * (MemoryEstimate.HASH_ENTRY_BYTES + 16);
+	}
+	
+	/**
+	 * This function estimates the heap retained by a node and the nodes below it
+	 * @param node is the Octree node
+	 * @return the estimated number of bytes
+	 */
+	private static long estimateNodeBytes(Octree node) {
+		
+		int ranked = node.getRankedWords().length;
+		
+		// The node, its child slots, word set, ranked words and trimmed set
+		long out = 40 + MemoryEstimate.referenceArrayBytes(Octree.DEGREE)
+				+ MemoryEstimate.TREE_SET_BYTES + node.getWords().size() * MemoryEstimate.TREE_ENTRY_BYTES
+				+ 2 * MemoryEstimate.referenceArrayBytes(ranked) + MemoryEstimate.align(16 + 4L * ranked) + 16;
+		
+		if( node.getSignature() != null ) {
+			out += MemoryEstimate.stringBytes(node.getSignature());
+		}
+		
+		for(Octree child : node.getChildren()) {
+			out += estimateNodeBytes(child);
+		}
+		return out;
+	}
+	
 	/**
 	 * This function returns the Octree dictionary 
 	 * @return the Octree dictionary
@@ -264,10 +733,15 @@ public class TreeDictionary implements Dictionary {
 			Scanner scan = new Scanner(file);
 			
 			while(scan.hasNextLine()) {
-				String dictWord = scan.nextLine().toLowerCase();
+				String line = scan.nextLine();
+				String dictWord = parseWord(line);
+				int frequency = parseFrequency(line);
 				
-				if(isValidWord(dictWord)) {
+				if(isValidWord(dictWord) && frequency >= 0) {
 					out.add(dictWord);
+					addFrequency(frequencies, dictWord, frequency);
+				}else {
+					wordsRejected++;
 				}
 			}
 			